@@ -0,0 +1,59 @@
+import java.util.Date;
+
+/**
+ * Ban.java - A ban on a player's name or an IP address, either for good or
+ * until a certain time.
+ */
+public class Ban {
+
+    /**
+     * Banned player's name, empty for an IP ban
+     */
+    public String Name = "";
+    /**
+     * Banned IP, empty for a name ban
+     */
+    public String Ip = "";
+    /**
+     * Why they were banned, may be empty
+     */
+    public String Reason = "";
+    /**
+     * When the ban runs out, in seconds since the epoch, or -1 for never
+     */
+    public long Timestamp = -1;
+
+    /**
+     * Returns true if this ban is on an IP rather than a name
+     * @return
+     */
+    public boolean isIpBan() {
+        return Name.equals("");
+    }
+
+    /**
+     * Returns true if the ban has run out
+     * @param now seconds since the epoch
+     * @return
+     */
+    public boolean isExpired(long now) {
+        return Timestamp != -1 && Timestamp <= now;
+    }
+
+    /**
+     * Returns what to tell the player when they're turned away
+     * @return
+     */
+    public String getMessage() {
+        StringBuilder message = new StringBuilder(isIpBan() ? "Your IP address is banned from this server" : "You are banned from this server");
+        if (Timestamp != -1) {
+            message.append(" until ").append(new Date(Timestamp * 1000L));
+        }
+        if (!Reason.equals("")) {
+            message.append(": ").append(Reason);
+        } else {
+            message.append("!");
+        }
+        return message.toString();
+    }
+}
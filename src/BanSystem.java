@@ -1,37 +1,288 @@
-
-public class BanSystem {
-    class Ban {
-        public String Name, Ip, Reason;
-        public int Timestamp = -1;
-    }
-
-    public BanSystem(DataSource source)
-    {
-        //Load bans.
-        //source.loadBans(); etc.
-    }
-
-    public void fileBan(String player) {
-
-    }
-
-    public void fileIpBan(String ip) {
-
-    }
-
-    public void fileTempBan(String player, int minutes, int hours, int months) {
-        //This is sort of crappy but I'm lazy.
-        int timestamp = ((int) (System.currentTimeMillis() / 1000L));
-        timestamp += minutes * 60;
-        timestamp += hours * 60 * 60;
-        timestamp += months * 60 * 60 * 24 * 30;
-    }
-
-    public boolean isBanned(String player, String ip) {
-        return false;
-    }
-
-    public String getBanReason(String player, String ip) {
-        return "";
-    }
-}
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.logging.Logger;
+
+/**
+ * BanSystem.java - Name and IP bans with reasons, for good or for a while.
+ * Bans are kept in memory by name and by IP so a login only costs two hash
+ * lookups, and saved through the data source. Temporary bans also go in a
+ * heap ordered by when they run out, which is checked every second.
+ *
+ * Lifting a ban doesn't take it out of the heap; when it comes to the top
+ * it's simply skipped if it isn't the ban in the index any more.
+ */
+public class BanSystem {
+
+    private static final Logger log = Logger.getLogger("Minecraft");
+    /**
+     * Longest a temporary ban can last, in seconds. Anything longer should
+     * be a normal ban.
+     */
+    public static final long MAX_TEMP_BAN = 100L * 365 * 24 * 60 * 60;
+    private final DataSource source;
+    private final Map<String, Ban> names = new HashMap<String, Ban>();
+    private final Map<String, Ban> ips = new HashMap<String, Ban>();
+    private final PriorityQueue<Ban> expiries = new PriorityQueue<Ban>(11, new Comparator<Ban>() {
+
+        public int compare(Ban a, Ban b) {
+            return a.Timestamp < b.Timestamp ? -1 : (a.Timestamp == b.Timestamp ? 0 : 1);
+        }
+    });
+
+    /**
+     * Creates the ban system and loads the bans from the data source
+     * @param source
+     */
+    public BanSystem(DataSource source) {
+        this.source = source;
+        load();
+    }
+
+    /**
+     * Reloads every ban from the data source
+     */
+    public synchronized void load() {
+        names.clear();
+        ips.clear();
+        expiries.clear();
+        long now = now();
+        for (Ban ban : source.readBans()) {
+            if (ban.isExpired(now)) {
+                source.removeBan(ban);
+            } else {
+                index(ban);
+            }
+        }
+        log.info("Loaded " + (names.size() + ips.size()) + " bans");
+    }
+
+    /**
+     * Bans a player for good
+     * @param player
+     */
+    public void fileBan(String player) {
+        fileBan(player, "");
+    }
+
+    /**
+     * Bans a player for good
+     * @param player
+     * @param reason
+     */
+    public void fileBan(String player, String reason) {
+        add(player, "", reason, -1);
+    }
+
+    /**
+     * Bans an IP for good
+     * @param ip
+     */
+    public void fileIpBan(String ip) {
+        fileIpBan(ip, "");
+    }
+
+    /**
+     * Bans an IP for good
+     * @param ip
+     * @param reason
+     */
+    public void fileIpBan(String ip, String reason) {
+        add("", ip, reason, -1);
+    }
+
+    /**
+     * Bans a player for a while
+     * @param player
+     * @param minutes
+     * @param hours
+     * @param days
+     */
+    public void fileTempBan(String player, int minutes, int hours, int days) {
+        fileTempBan(player, minutes, hours, days, "");
+    }
+
+    /**
+     * Bans a player for a while
+     * @param player
+     * @param minutes
+     * @param hours
+     * @param days
+     * @param reason
+     */
+    public void fileTempBan(String player, int minutes, int hours, int days, String reason) {
+        add(player, "", reason, until(minutes, hours, days));
+    }
+
+    /**
+     * Bans an IP for a while
+     * @param ip
+     * @param minutes
+     * @param hours
+     * @param days
+     * @param reason
+     */
+    public void fileTempIpBan(String ip, int minutes, int hours, int days, String reason) {
+        add("", ip, reason, until(minutes, hours, days));
+    }
+
+    /**
+     * Lifts the ban on a player
+     * @param player
+     * @return false if they weren't banned
+     */
+    public synchronized boolean unban(String player) {
+        Ban ban = names.remove(player.toLowerCase());
+        if (ban != null) {
+            source.removeBan(ban);
+        }
+        return ban != null;
+    }
+
+    /**
+     * Lifts the ban on an IP
+     * @param ip
+     * @return false if it wasn't banned
+     */
+    public synchronized boolean unbanIp(String ip) {
+        Ban ban = ips.remove(ip);
+        if (ban != null) {
+            source.removeBan(ban);
+        }
+        return ban != null;
+    }
+
+    /**
+     * Returns the ban keeping this player out, if any
+     * @param player
+     * @param ip
+     * @return ban, or null
+     */
+    public synchronized Ban getBan(String player, String ip) {
+        long now = now();
+        Ban ban = names.get(player.toLowerCase());
+        if (ban != null && !ban.isExpired(now)) {
+            return ban;
+        }
+        ban = ips.get(ip);
+        if (ban != null && !ban.isExpired(now)) {
+            return ban;
+        }
+        return null;
+    }
+
+    /**
+     * Returns true if the player or their IP is banned
+     * @param player
+     * @param ip
+     * @return
+     */
+    public boolean isBanned(String player, String ip) {
+        return getBan(player, ip) != null;
+    }
+
+    /**
+     * Returns why the player or their IP is banned
+     * @param player
+     * @param ip
+     * @return reason, or an empty string
+     */
+    public String getBanReason(String player, String ip) {
+        Ban ban = getBan(player, ip);
+        return ban == null ? "" : ban.Reason;
+    }
+
+    /**
+     * Returns every ban
+     * @return
+     */
+    public synchronized List<Ban> getBans() {
+        List<Ban> bans = new ArrayList<Ban>(names.values());
+        bans.addAll(ips.values());
+        return bans;
+    }
+
+    /**
+     * Lifts every temporary ban that has run out
+     * @return how many were lifted
+     */
+    public synchronized int expire() {
+        long now = now();
+        int count = 0;
+        while (!expiries.isEmpty() && expiries.peek().isExpired(now)) {
+            Ban ban = expiries.poll();
+            Map<String, Ban> index = ban.isIpBan() ? ips : names;
+            String key = ban.isIpBan() ? ban.Ip : ban.Name.toLowerCase();
+            if (index.get(key) == ban) {
+                index.remove(key);
+                source.removeBan(ban);
+                log.info("Ban on " + key + " ran out");
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Checks for bans that ran out every second, using the timer wheel
+     * @param timers
+     */
+    public void expireEvery(final TimerWheel timers) {
+        final Object key = new Object();
+        timers.schedule(key, 20, new TimerWheel.Listener() {
+
+            public void expired(Object k) {
+                expire();
+                timers.schedule(key, 20, this);
+            }
+        });
+    }
+
+    private synchronized void add(String player, String ip, String reason, long timestamp) {
+        Ban ban = new Ban();
+        ban.Name = player;
+        ban.Ip = ip;
+        ban.Reason = reason == null ? "" : reason;
+        ban.Timestamp = timestamp;
+        index(ban);
+        source.addBan(ban);
+    }
+
+    private void index(Ban ban) {
+        if (ban.isIpBan()) {
+            ips.put(ban.Ip, ban);
+        } else {
+            names.put(ban.Name.toLowerCase(), ban);
+        }
+        if (ban.Timestamp != -1) {
+            expiries.add(ban);
+        }
+    }
+
+    /**
+     * Returns how long a temporary ban lasts
+     * @param minutes
+     * @param hours
+     * @param days
+     * @return seconds
+     */
+    public static long getDuration(int minutes, int hours, int days) {
+        return minutes * 60L + hours * 60L * 60 + days * 60L * 60 * 24;
+    }
+
+    private static long until(int minutes, int hours, int days) {
+        long duration = getDuration(minutes, hours, days);
+        if (duration <= 0 || duration > MAX_TEMP_BAN) {
+            throw new IllegalArgumentException("A temporary ban has to last between a minute and " + MAX_TEMP_BAN + " seconds");
+        }
+        return now() + duration;
+    }
+
+    private static long now() {
+        return System.currentTimeMillis() / 1000L;
+    }
+}
@@ -0,0 +1,337 @@
+/* Binary data source */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+
+/**
+ * BinarySource keeps users, homes and warps in memory-mapped record files
+ * (users.dat, homes.dat and warps.dat next to the .txt files), so adding or
+ * changing one of them writes a single record in place instead of rewriting
+ * the whole file, and loading doesn't have to parse any text. Groups, kits,
+ * items and the lists are edited by hand and stay in their flat files.
+ *
+ * The first time it starts, anything already in users.txt, homes.txt and
+ * warps.txt is copied into the new files. The .txt files are left alone.
+ */
+public class BinarySource extends FlatFileSource {
+
+    private static final int GROUPS_SIZE = 256, PREFIX_SIZE = 16, COMMANDS_SIZE = 1024, IPS_SIZE = 256;
+    private static final int GROUP_SIZE = 64;
+    private static final int USER_SIZE = 4 + 1 + GROUPS_SIZE + PREFIX_SIZE + COMMANDS_SIZE + IPS_SIZE;
+    private static final int WARP_SIZE = 4 + 8 * 3 + 4 * 2 + GROUP_SIZE;
+    private final Map<String, RecordFile> files = new HashMap<String, RecordFile>();
+
+    protected Map<String, Object> getVersions() {
+        etc e = etc.getInstance();
+        Map<String, Object> versions = super.getVersions();
+        // Only this server writes the record files and it already has every
+        // change in memory, so they only need reading again if they move.
+        versions.put("users", dat(e.usersLoc));
+        versions.put("homes", dat(e.homeLoc));
+        versions.put("warps", dat(e.warpLoc));
+        return versions;
+    }
+
+    protected List<User> readUsers() {
+        List<User> users = new ArrayList<User>();
+        RecordFile file = getFile(etc.getInstance().usersLoc, USER_SIZE);
+        if (file != null) {
+            for (ByteBuffer record : file.getAll()) {
+                users.add(readUser(record));
+            }
+        }
+        return users;
+    }
+
+    protected List<Warp> readHomes() {
+        List<Warp> homes = new ArrayList<Warp>();
+        if (!etc.getInstance().saveHomes) {
+            return homes;
+        }
+        RecordFile file = getFile(etc.getInstance().homeLoc, WARP_SIZE);
+        if (file != null) {
+            for (ByteBuffer record : file.getAll()) {
+                homes.add(readWarp(record));
+            }
+        }
+        return homes;
+    }
+
+    protected Warp readHome(String name) {
+        if (!etc.getInstance().saveHomes) {
+            return null;
+        }
+        RecordFile file = getFile(etc.getInstance().homeLoc, WARP_SIZE);
+        if (file == null) {
+            return null;
+        }
+        ByteBuffer record = file.get(name);
+        return record == null ? null : readWarp(record);
+    }
+
+    protected List<Warp> readWarps() {
+        List<Warp> warps = new ArrayList<Warp>();
+        RecordFile file = getFile(etc.getInstance().warpLoc, WARP_SIZE);
+        if (file != null) {
+            for (ByteBuffer record : file.getAll()) {
+                warps.add(readWarp(record));
+            }
+        }
+        return warps;
+    }
+
+    //Users
+    public void addUser(User user) {
+        if (!fits(user)) {
+            return;
+        }
+        putUser(user);
+        queueWrite(etc.getInstance().usersLoc, user);
+    }
+
+    public void modifyUser(User user) {
+        if (!fits(user)) {
+            return;
+        }
+        putUser(user);
+        queueWrite(etc.getInstance().usersLoc, user);
+    }
+
+    //Homes
+    public void addHome(Warp home) {
+        if (!fits(home)) {
+            return;
+        }
+        putHome(home);
+        if (etc.getInstance().saveHomes) {
+            queueWrite(etc.getInstance().homeLoc, home);
+        }
+    }
+
+    public void changeHome(Warp home) {
+        addHome(home);
+    }
+
+    //Warps
+    public void addWarp(Warp warp) {
+        if (!fits(warp)) {
+            return;
+        }
+        putWarp(warp);
+        queueWrite(etc.getInstance().warpLoc, warp);
+    }
+
+    public void changeWarp(Warp warp) {
+        addWarp(warp);
+    }
+
+    public void removeWarp(final Warp warp) {
+        dropWarp(warp);
+        final String location = etc.getInstance().warpLoc;
+        queue(new Runnable() {
+
+            public void run() {
+                RecordFile file = getFile(location, WARP_SIZE);
+                if (file != null) {
+                    file.remove(warp.Name);
+                }
+            }
+        });
+    }
+
+    public void shutdown() {
+        super.shutdown();
+        synchronized (files) {
+            for (RecordFile file : files.values()) {
+                file.close();
+            }
+            files.clear();
+        }
+    }
+
+    private void queueWrite(final String location, final Object entry) {
+        queue(new Runnable() {
+
+            public void run() {
+                if (entry instanceof User) {
+                    User user = (User) entry;
+                    write(getFile(location, USER_SIZE), user.Name, userRecord(user));
+                } else {
+                    Warp warp = (Warp) entry;
+                    write(getFile(location, WARP_SIZE), warp.Name, warpRecord(warp));
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns true if every field of the user fits in its record, logging it
+     * if not. A field is never cut off, a shorter command list would give
+     * them different permissions than they have.
+     * @param user
+     * @return
+     */
+    private static boolean fits(User user) {
+        return fits(user.Name, "names", user.Name, RecordFile.NAME_SIZE)
+                && fits(user.Name, "group lists", join(user.Groups), GROUPS_SIZE)
+                && fits(user.Name, "prefixes", user.Prefix, PREFIX_SIZE)
+                && fits(user.Name, "command lists", join(user.Commands), COMMANDS_SIZE)
+                && fits(user.Name, "IP lists", join(user.IPs), IPS_SIZE);
+    }
+
+    /**
+     * Returns true if every field of the home or warp fits in its record,
+     * logging it if not
+     * @param warp
+     * @return
+     */
+    private static boolean fits(Warp warp) {
+        return fits(warp.Name, "names", warp.Name, RecordFile.NAME_SIZE)
+                && fits(warp.Name, "groups", warp.Group, GROUP_SIZE);
+    }
+
+    private static boolean fits(String name, String field, String value, int size) {
+        if (RecordFile.fits(value, size)) {
+            return true;
+        }
+        log.log(Level.SEVERE, "Not saving '" + name + "', " + field + " can be at most " + (size - 2) + " bytes");
+        return false;
+    }
+
+    private void write(RecordFile file, String name, ByteBuffer record) {
+        if (file == null) {
+            return;
+        }
+        try {
+            file.put(name, record);
+        } catch (IOException ex) {
+            log.log(Level.SEVERE, "Exception while writing '" + name + "' to a record file", ex);
+        }
+    }
+
+    /**
+     * Returns the record file that takes the place of the specified flat
+     * file, opening it (and copying the flat file in if it's new) the first
+     * time it's asked for.
+     * @param location location of the flat file
+     * @param recordSize
+     * @return record file, or null if it couldn't be opened
+     */
+    private RecordFile getFile(String location, int recordSize) {
+        String path = dat(location);
+        synchronized (files) {
+            RecordFile file = files.get(path);
+            if (file != null) {
+                return file;
+            }
+            try {
+                boolean convert = !new File(path).exists() && new File(location).exists();
+                file = new RecordFile(new File(path), recordSize);
+                if (convert) {
+                    try {
+                        convert(location, file);
+                    } catch (IOException ex) {
+                        // Start again from scratch next time
+                        file.close();
+                        new File(path).delete();
+                        throw ex;
+                    }
+                }
+                files.put(path, file);
+            } catch (IOException ex) {
+                log.log(Level.SEVERE, "Exception while opening " + path, ex);
+                return null;
+            }
+            return file;
+        }
+    }
+
+    private void convert(String location, RecordFile file) throws IOException {
+        etc e = etc.getInstance();
+        int count = 0;
+        if (location.equals(e.usersLoc)) {
+            for (User user : super.readUsers()) {
+                if (fits(user)) {
+                    file.put(user.Name, userRecord(user));
+                    count++;
+                }
+            }
+        } else {
+            List<Warp> warps = location.equals(e.homeLoc) ? super.readHomes() : super.readWarps();
+            for (Warp warp : warps) {
+                if (fits(warp)) {
+                    file.put(warp.Name, warpRecord(warp));
+                    count++;
+                }
+            }
+        }
+        file.force();
+        log.info("Converted " + count + " entries from " + location + " to " + dat(location));
+    }
+
+    private static String dat(String location) {
+        return (location.endsWith(".txt") ? location.substring(0, location.length() - 4) : location) + ".dat";
+    }
+
+    private static String join(String[] list) {
+        return list == null || list.length == 0 ? "" : id.combineSplit(0, list, ",");
+    }
+
+    private static ByteBuffer userRecord(User user) {
+        ByteBuffer record = ByteBuffer.allocate(USER_SIZE);
+        record.putInt(user.ID);
+        record.put((byte) ((user.Administrator ? 1 : 0) | (user.IgnoreRestrictions ? 2 : 0) | (user.CanModifyWorld ? 0 : 4)));
+        RecordFile.putString(record, join(user.Groups), GROUPS_SIZE);
+        RecordFile.putString(record, user.Prefix, PREFIX_SIZE);
+        RecordFile.putString(record, join(user.Commands), COMMANDS_SIZE);
+        RecordFile.putString(record, join(user.IPs), IPS_SIZE);
+        return record;
+    }
+
+    private static User readUser(ByteBuffer record) {
+        User user = new User();
+        user.Name = RecordFile.getString(record, RecordFile.NAME_SIZE);
+        user.ID = record.getInt();
+        byte flags = record.get();
+        user.Administrator = (flags & 1) != 0;
+        user.IgnoreRestrictions = (flags & 2) != 0;
+        user.CanModifyWorld = (flags & 4) == 0;
+        user.Groups = RecordFile.getString(record, GROUPS_SIZE).split(",");
+        user.Prefix = RecordFile.getString(record, PREFIX_SIZE);
+        user.Commands = RecordFile.getString(record, COMMANDS_SIZE).split(",");
+        user.IPs = RecordFile.getString(record, IPS_SIZE).split(",");
+        return user;
+    }
+
+    private static ByteBuffer warpRecord(Warp warp) {
+        ByteBuffer record = ByteBuffer.allocate(WARP_SIZE);
+        record.putInt(warp.ID);
+        record.putDouble(warp.Location.x);
+        record.putDouble(warp.Location.y);
+        record.putDouble(warp.Location.z);
+        record.putFloat(warp.Location.rotX);
+        record.putFloat(warp.Location.rotY);
+        RecordFile.putString(record, warp.Group, GROUP_SIZE);
+        return record;
+    }
+
+    private static Warp readWarp(ByteBuffer record) {
+        Warp warp = new Warp();
+        warp.Name = RecordFile.getString(record, RecordFile.NAME_SIZE);
+        warp.ID = record.getInt();
+        warp.Location = new Location();
+        warp.Location.x = record.getDouble();
+        warp.Location.y = record.getDouble();
+        warp.Location.z = record.getDouble();
+        warp.Location.rotX = record.getFloat();
+        warp.Location.rotY = record.getFloat();
+        warp.Group = RecordFile.getString(record, GROUP_SIZE);
+        return warp;
+    }
+}
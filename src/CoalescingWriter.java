@@ -0,0 +1,290 @@
+/* Collects home and warp updates and writes them to MySQL in batches */
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * CoalescingWriter.java - Holds updates to homes and warps until the next
+ * flush. Updating the same home or warp again before then just replaces the
+ * pending update, and a flush sends everything as one batch per table inside
+ * a single transaction. Rows the UPDATE doesn't find are inserted, so new
+ * homes and warps are queued here too. That relies on the driver reporting
+ * matched rows rather than changed ones, which is Connector/J's default.
+ * Removals are queued as well, so one can't be overtaken by an older update.
+ *
+ * If the database can't be reached the pending updates are saved to a spool
+ * file instead, and go out with the next flush that works. Entries in the
+ * spool are keyed the same way, so anything newer replaces them, and a
+ * removal is spooled as a line with just the table and the name.
+ */
+public class CoalescingWriter {
+
+    private static final Logger log = Logger.getLogger("Minecraft");
+    private static final String[] TABLES = {"homes", "warps"};
+    private final Map<String, Map<String, Warp>> pending = new LinkedHashMap<String, Map<String, Warp>>();
+    private final File spool, temp;
+    private boolean spooled = false;
+
+    /**
+     * Creates a writer spooling to the specified file
+     * @param spoolLoc
+     */
+    public CoalescingWriter(String spoolLoc) {
+        spool = new File(spoolLoc);
+        temp = new File(spoolLoc + ".tmp");
+        for (String table : TABLES) {
+            pending.put(table, new LinkedHashMap<String, Warp>());
+        }
+    }
+
+    /**
+     * Returns the spool file
+     * @return
+     */
+    public File getSpool() {
+        return spool;
+    }
+
+    /**
+     * Queues an update of the specified home or warp, which is inserted if
+     * it isn't in the table yet
+     * @param table homes or warps
+     * @param warp
+     */
+    public synchronized void put(String table, Warp warp) {
+        pending.get(table).put(warp.Name.toLowerCase(), warp);
+    }
+
+    /**
+     * Queues removal of the specified home or warp, in place of any update of
+     * it still waiting here or in the spool
+     * @param table homes or warps
+     * @param name
+     */
+    public synchronized void remove(String table, String name) {
+        // No location marks it as a removal
+        Warp removed = new Warp();
+        removed.Name = name;
+        pending.get(table).put(name.toLowerCase(), removed);
+    }
+
+    /**
+     * Returns true if there's anything to flush
+     * @return
+     */
+    public synchronized boolean hasWork() {
+        for (Map<String, Warp> map : pending.values()) {
+            if (!map.isEmpty()) {
+                return true;
+            }
+        }
+        return spool.exists();
+    }
+
+    /**
+     * Writes everything pending, plus anything left in the spool, using the
+     * specified connection. Only one thread should flush at a time.
+     * @param conn connection to use, null if none could be had
+     * @return false if the changes had to be spooled
+     */
+    public boolean flush(Connection conn) {
+        Map<String, Map<String, Warp>> work = new LinkedHashMap<String, Map<String, Warp>>();
+        for (String table : TABLES) {
+            work.put(table, new LinkedHashMap<String, Warp>());
+        }
+        boolean fromSpool = spool.exists();
+        if (fromSpool) {
+            readSpool(work);
+        }
+        synchronized (this) {
+            for (String table : TABLES) {
+                work.get(table).putAll(pending.get(table));
+                pending.get(table).clear();
+            }
+        }
+
+        int count = 0;
+        for (Map<String, Warp> map : work.values()) {
+            count += map.size();
+        }
+        if (count == 0) {
+            spool.delete();
+            return true;
+        }
+
+        try {
+            if (conn == null) {
+                throw new SQLException("No connection");
+            }
+            conn.setAutoCommit(false);
+            for (String table : TABLES) {
+                List<Warp> warps = new ArrayList<Warp>();
+                List<Warp> removed = new ArrayList<Warp>();
+                List<Warp> missing = new ArrayList<Warp>();
+                for (Warp warp : work.get(table).values()) {
+                    (warp.Location == null ? removed : warps).add(warp);
+                }
+
+                PreparedStatement ps;
+                if (!removed.isEmpty()) {
+                    ps = conn.prepareStatement("DELETE FROM " + table + " WHERE name = ?");
+                    try {
+                        for (Warp warp : removed) {
+                            ps.setString(1, warp.Name);
+                            ps.addBatch();
+                        }
+                        ps.executeBatch();
+                    } finally {
+                        ps.clearBatch();
+                        ps.close();
+                    }
+                }
+
+                ps = conn.prepareStatement("UPDATE " + table + " SET x = ?, y = ?, z = ?, rotX = ?, rotY = ?, `group` = ? WHERE name = ?");
+                try {
+                    for (Warp warp : warps) {
+                        ps.setDouble(1, warp.Location.x);
+                        ps.setDouble(2, warp.Location.y);
+                        ps.setDouble(3, warp.Location.z);
+                        ps.setFloat(4, warp.Location.rotX);
+                        ps.setFloat(5, warp.Location.rotY);
+                        ps.setString(6, warp.Group);
+                        ps.setString(7, warp.Name);
+                        ps.addBatch();
+                    }
+                    int[] updated = ps.executeBatch();
+                    for (int i = 0; i < updated.length && i < warps.size(); i++) {
+                        if (updated[i] == 0) {
+                            missing.add(warps.get(i));
+                        }
+                    }
+                } finally {
+                    ps.clearBatch();
+                    ps.close();
+                }
+                if (missing.isEmpty()) {
+                    continue;
+                }
+
+                ps = conn.prepareStatement("INSERT INTO " + table + " (name, x, y, z, rotX, rotY, `group`) VALUES(?, ?, ?, ?, ?, ?, ?)", Statement.RETURN_GENERATED_KEYS);
+                ResultSet rs = null;
+                try {
+                    for (Warp warp : missing) {
+                        ps.setString(1, warp.Name);
+                        ps.setDouble(2, warp.Location.x);
+                        ps.setDouble(3, warp.Location.y);
+                        ps.setDouble(4, warp.Location.z);
+                        ps.setFloat(5, warp.Location.rotX);
+                        ps.setFloat(6, warp.Location.rotY);
+                        ps.setString(7, warp.Group);
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+
+                    // Comes back in the order they were added
+                    rs = ps.getGeneratedKeys();
+                    for (int i = 0; i < missing.size() && rs.next(); i++) {
+                        missing.get(i).ID = rs.getInt(1);
+                    }
+                } finally {
+                    if (rs != null) {
+                        rs.close();
+                    }
+                    ps.clearBatch();
+                    ps.close();
+                }
+            }
+            conn.commit();
+        } catch (SQLException ex) {
+            if (!spooled) {
+                log.log(Level.WARNING, "Unable to write home and warp updates, keeping them in " + spool + " until the database is back", ex);
+            }
+            spooled = true;
+            writeSpool(work);
+            return false;
+        }
+
+        if (fromSpool || spooled) {
+            log.info("Wrote " + count + " spooled home and warp updates to the database");
+        }
+        spooled = false;
+        spool.delete();
+        return true;
+    }
+
+    private void readSpool(Map<String, Map<String, Warp>> work) {
+        try {
+            BufferedReader reader = new BufferedReader(new FileReader(spool));
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] split = line.split(":");
+                    if (split.length < 2 || !work.containsKey(split[0])) {
+                        continue;
+                    }
+                    Warp warp = new Warp();
+                    warp.Name = split[1];
+                    if (split.length < 7) {
+                        // Removed
+                        work.get(split[0]).put(warp.Name.toLowerCase(), warp);
+                        continue;
+                    }
+                    warp.Location = new Location();
+                    warp.Location.x = Double.parseDouble(split[2]);
+                    warp.Location.y = Double.parseDouble(split[3]);
+                    warp.Location.z = Double.parseDouble(split[4]);
+                    warp.Location.rotX = Float.parseFloat(split[5]);
+                    warp.Location.rotY = Float.parseFloat(split[6]);
+                    warp.Group = split.length >= 8 ? split[7] : "";
+                    work.get(split[0]).put(warp.Name.toLowerCase(), warp);
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (Exception ex) {
+            log.log(Level.SEVERE, "Exception while reading " + spool, ex);
+        }
+    }
+
+    private void writeSpool(Map<String, Map<String, Warp>> work) {
+        try {
+            FileWriter writer = new FileWriter(temp);
+            try {
+                for (Map.Entry<String, Map<String, Warp>> entry : work.entrySet()) {
+                    for (Warp warp : entry.getValue().values()) {
+                        if (warp.Location == null) {
+                            writer.write(entry.getKey() + ":" + warp.Name + "\r\n");
+                            continue;
+                        }
+                        writer.write(entry.getKey() + ":" + warp.Name + ":" + warp.Location.x + ":" + warp.Location.y + ":" + warp.Location.z
+                                + ":" + warp.Location.rotX + ":" + warp.Location.rotY + ":" + warp.Group + "\r\n");
+                    }
+                }
+            } finally {
+                writer.close();
+            }
+            if (!temp.renameTo(spool)) {
+                spool.delete();
+                if (!temp.renameTo(spool)) {
+                    throw new IOException("Unable to move " + temp + " to " + spool);
+                }
+            }
+        } catch (IOException ex) {
+            log.log(Level.SEVERE, "Exception while writing " + spool + ", home and warp updates may be lost", ex);
+        }
+    }
+}
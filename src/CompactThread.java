@@ -0,0 +1,31 @@
+/* Folds flat file journals back into their files every x seconds */
+
+public class CompactThread implements Runnable {
+    private boolean running = false;
+    private long compactInterval = 60000L;
+    private FlatFileSource source;
+
+    public CompactThread(FlatFileSource source, long compactInterval) {
+        this.source = source;
+        this.compactInterval = compactInterval;
+    }
+
+    public void run() {
+        while (this.running) {
+            try {
+                Thread.sleep(compactInterval);
+            } catch (InterruptedException localInterruptedException) {
+            }
+            source.compactJournals();
+        }
+    }
+
+    public void start() {
+        this.running = true;
+        new Thread(this).start();
+    }
+
+    public void stop() {
+        this.running = false;
+    }
+}
@@ -0,0 +1,266 @@
+/* Keeps MySQL connections open between queries */
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * ConnectionPool.java - A small bounded pool of JDBC connections. Connections
+ * handed out are wrappers: closing one puts it back in the pool, and
+ * prepareStatement hands back a statement cached on that connection, whose
+ * close() does nothing. Idle connections are checked with isValid before
+ * they're handed out again, and closed once they've sat unused for too long.
+ */
+public class ConnectionPool {
+
+    private static final Logger log = Logger.getLogger("Minecraft");
+    private final String url;
+    private final int maxSize, validationTimeout, statementCacheSize;
+    private final long idleTimeout, waitTimeout;
+    // Most recently used at the front
+    private final LinkedList<PooledConnection> idle = new LinkedList<PooledConnection>();
+    private int open = 0;
+    private boolean closed = false;
+
+    /**
+     * Creates a pool
+     * @param url jdbc url, including user and password
+     * @param maxSize maximum connections open at once
+     * @param validationTimeout seconds to wait for isValid
+     * @param idleTimeout milliseconds a connection may sit unused
+     * @param waitTimeout milliseconds to wait for a free connection
+     * @param statementCacheSize prepared statements kept per connection
+     */
+    public ConnectionPool(String url, int maxSize, int validationTimeout, long idleTimeout, long waitTimeout, int statementCacheSize) {
+        this.url = url;
+        this.maxSize = Math.max(1, maxSize);
+        this.validationTimeout = validationTimeout;
+        this.idleTimeout = idleTimeout;
+        this.waitTimeout = waitTimeout;
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    /**
+     * Returns the most connections that can be open at once
+     * @return
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Borrows a connection. Close it to give it back.
+     * @return connection
+     * @throws SQLException
+     */
+    public Connection getConnection() throws SQLException {
+        long deadline = System.currentTimeMillis() + waitTimeout;
+        while (true) {
+            PooledConnection pc = null;
+            synchronized (this) {
+                if (closed) {
+                    throw new SQLException("Connection pool is closed");
+                }
+                evictIdle();
+                if (!idle.isEmpty()) {
+                    pc = idle.removeFirst();
+                } else if (open < maxSize) {
+                    open++;
+                } else {
+                    long wait = deadline - System.currentTimeMillis();
+                    if (wait <= 0) {
+                        throw new SQLException("Timed out waiting for a connection, all " + maxSize + " are in use");
+                    }
+                    try {
+                        wait(wait);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrupted while waiting for a connection");
+                    }
+                    continue;
+                }
+            }
+
+            if (pc == null) {
+                try {
+                    pc = new PooledConnection(DriverManager.getConnection(url));
+                } catch (SQLException ex) {
+                    discarded();
+                    throw ex;
+                }
+            } else if (!isValid(pc)) {
+                pc.closeQuietly();
+                discarded();
+                continue;
+            }
+
+            pc.inUse = true;
+            return pc.proxy;
+        }
+    }
+
+    /**
+     * Closes every idle connection. Connections still in use are closed when
+     * they're given back.
+     */
+    public synchronized void close() {
+        closed = true;
+        for (PooledConnection pc : idle) {
+            pc.closeQuietly();
+        }
+        open -= idle.size();
+        idle.clear();
+        notifyAll();
+    }
+
+    private boolean isValid(PooledConnection pc) {
+        try {
+            return pc.connection.isValid(validationTimeout);
+        } catch (SQLException ex) {
+            return false;
+        }
+    }
+
+    private synchronized void discarded() {
+        open--;
+        notifyAll();
+    }
+
+    private synchronized void release(PooledConnection pc) {
+        pc.lastUsed = System.currentTimeMillis();
+        if (closed) {
+            pc.closeQuietly();
+            open--;
+        } else {
+            idle.addFirst(pc);
+        }
+        notifyAll();
+    }
+
+    private void evictIdle() {
+        long now = System.currentTimeMillis();
+        while (!idle.isEmpty() && now - idle.getLast().lastUsed > idleTimeout) {
+            idle.removeLast().closeQuietly();
+            open--;
+        }
+    }
+
+    private class PooledConnection implements InvocationHandler {
+
+        private final Connection connection;
+        private final Connection proxy;
+        private final Map<String, PreparedStatement> statements;
+        private long lastUsed;
+        private boolean inUse;
+
+        PooledConnection(Connection connection) {
+            this.connection = connection;
+            this.proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, this);
+            this.statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+
+                protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                    if (size() > statementCacheSize) {
+                        try {
+                            eldest.getValue().close();
+                        } catch (SQLException ex) {
+                        }
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        public Object invoke(Object o, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("close")) {
+                if (inUse) {
+                    inUse = false;
+                    try {
+                        if (!connection.getAutoCommit()) {
+                            connection.rollback();
+                            connection.setAutoCommit(true);
+                        }
+                    } catch (SQLException ex) {
+                        closeQuietly();
+                        discarded();
+                        return null;
+                    }
+                    release(this);
+                }
+                return null;
+            }
+            if (name.equals("isClosed")) {
+                return !inUse || connection.isClosed();
+            }
+            if (!inUse) {
+                throw new SQLException("Connection has been given back to the pool");
+            }
+            if (name.equals("prepareStatement") && statementCacheSize > 0 && args.length <= 2
+                    && (args.length == 1 || args[1] instanceof Integer)) {
+                String key = args.length == 1 ? (String) args[0] : args[1] + ":" + args[0];
+                PreparedStatement ps = statements.get(key);
+                if (ps == null) {
+                    ps = (PreparedStatement) call(method, args);
+                    statements.put(key, ps);
+                } else {
+                    ps.clearParameters();
+                }
+                return cached(ps);
+            }
+            return call(method, args);
+        }
+
+        private Object call(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(connection, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+        }
+
+        private PreparedStatement cached(final PreparedStatement ps) {
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, new InvocationHandler() {
+
+                public Object invoke(Object o, Method method, Object[] args) throws Throwable {
+                    if (method.getName().equals("close")) {
+                        return null;
+                    }
+                    if (method.getName().equals("getConnection")) {
+                        return proxy;
+                    }
+                    try {
+                        return method.invoke(ps, args);
+                    } catch (InvocationTargetException ex) {
+                        throw ex.getCause();
+                    }
+                }
+            });
+        }
+
+        void closeQuietly() {
+            for (PreparedStatement ps : statements.values()) {
+                try {
+                    ps.close();
+                } catch (SQLException ex) {
+                }
+            }
+            statements.clear();
+            try {
+                connection.close();
+            } catch (SQLException ex) {
+                log.log(Level.FINE, "Exception while closing pooled connection", ex);
+            }
+        }
+    }
+}
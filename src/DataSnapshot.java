@@ -0,0 +1,422 @@
+/* Immutable view of the data source */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * DataSnapshot.java - Everything a DataSource has loaded, frozen at one point
+ * in time. Nothing in here ever changes after it's published; the with*
+ * methods return a copy with one part replaced so the data source can swap
+ * the whole thing in with a single volatile write.
+ */
+public final class DataSnapshot {
+
+    /**
+     * Snapshot with nothing loaded
+     */
+    public static final DataSnapshot EMPTY = new DataSnapshot();
+    private static final Logger log = Logger.getLogger("Minecraft");
+    List<User> users = Collections.emptyList();
+    Map<String, User> userIndex = Collections.emptyMap();
+    List<Group> groups = Collections.emptyList();
+    Map<String, Group> groupIndex = Collections.emptyMap();
+    Group defaultGroup;
+    List<Kit> kits = Collections.emptyList();
+    Map<String, Kit> kitIndex = Collections.emptyMap();
+    List<Warp> homes = Collections.emptyList();
+    Map<String, Warp> homeIndex = Collections.emptyMap();
+    WarpGrid homeGrid = WarpGrid.EMPTY;
+    List<Warp> warps = Collections.emptyList();
+    Map<String, Warp> warpIndex = Collections.emptyMap();
+    WarpGrid warpGrid = WarpGrid.EMPTY;
+    ItemTrie items = ItemTrie.EMPTY;
+    List<String> whiteList = Collections.emptyList();
+    Set<String> whiteListIndex = Collections.emptySet();
+    List<String> reserveList = Collections.emptyList();
+    Set<String> reserveListIndex = Collections.emptySet();
+    // Filled in lazily, thrown away with the snapshot whenever users or
+    // groups change.
+    private ConcurrentMap<String, PermissionProfile> profiles = new ConcurrentHashMap<String, PermissionProfile>();
+    private volatile PermissionProfile defaultProfile;
+
+    private DataSnapshot() {
+    }
+
+    /**
+     * Returns the effective permissions of the specified player, building
+     * them the first time they're asked for.
+     * @param name
+     * @return profile
+     */
+    public PermissionProfile getProfile(String name) {
+        String key = name.toLowerCase();
+        User user = userIndex.get(key);
+        if (user == null) {
+            PermissionProfile profile = defaultProfile;
+            if (profile == null) {
+                profile = PermissionProfile.build(null, this);
+                defaultProfile = profile;
+            }
+            return profile;
+        }
+
+        PermissionProfile profile = profiles.get(key);
+        if (profile == null) {
+            profile = PermissionProfile.build(user, this);
+            PermissionProfile old = profiles.putIfAbsent(key, profile);
+            if (old != null) {
+                profile = old;
+            }
+        }
+        return profile;
+    }
+
+    private DataSnapshot copy() {
+        DataSnapshot s = new DataSnapshot();
+        s.users = users;
+        s.userIndex = userIndex;
+        s.groups = groups;
+        s.groupIndex = groupIndex;
+        s.defaultGroup = defaultGroup;
+        s.kits = kits;
+        s.kitIndex = kitIndex;
+        s.homes = homes;
+        s.homeIndex = homeIndex;
+        s.homeGrid = homeGrid;
+        s.warps = warps;
+        s.warpIndex = warpIndex;
+        s.warpGrid = warpGrid;
+        s.items = items;
+        s.whiteList = whiteList;
+        s.whiteListIndex = whiteListIndex;
+        s.reserveList = reserveList;
+        s.reserveListIndex = reserveListIndex;
+        s.profiles = profiles;
+        s.defaultProfile = defaultProfile;
+        return s;
+    }
+
+    private void dropProfiles() {
+        profiles = new ConcurrentHashMap<String, PermissionProfile>();
+        defaultProfile = null;
+    }
+
+    /**
+     * Returns a copy with the user list replaced
+     * @param users
+     * @return new snapshot
+     */
+    public DataSnapshot withUsers(List<User> users) {
+        DataSnapshot s = copy();
+        s.dropProfiles();
+        Map<String, User> index = new HashMap<String, User>();
+        for (User user : users) {
+            String key = user.Name.toLowerCase();
+            if (!index.containsKey(key)) {
+                index.put(key, user);
+            }
+        }
+        s.users = Collections.unmodifiableList(new ArrayList<User>(users));
+        s.userIndex = Collections.unmodifiableMap(index);
+        return s;
+    }
+
+    /**
+     * Returns a copy with the user added, replacing any user with the same
+     * name
+     * @param user
+     * @return new snapshot
+     */
+    public DataSnapshot withUser(User user) {
+        DataSnapshot s = copy();
+        s.dropProfiles();
+        List<User> list = new ArrayList<User>(users);
+        Map<String, User> index = new HashMap<String, User>(userIndex);
+        User old = index.put(user.Name.toLowerCase(), user);
+        if (old != null) {
+            list.remove(old);
+        }
+        list.add(user);
+        s.users = Collections.unmodifiableList(list);
+        s.userIndex = Collections.unmodifiableMap(index);
+        return s;
+    }
+
+    /**
+     * Returns a copy with the group list replaced
+     * @param groups
+     * @return new snapshot
+     */
+    public DataSnapshot withGroups(List<Group> groups) {
+        DataSnapshot s = copy();
+        s.dropProfiles();
+        Map<String, Group> index = new HashMap<String, Group>();
+        s.defaultGroup = null;
+        for (Group group : groups) {
+            String key = group.Name.toLowerCase();
+            if (!index.containsKey(key)) {
+                index.put(key, group);
+            }
+            if (group.DefaultGroup && s.defaultGroup == null) {
+                s.defaultGroup = group;
+            }
+        }
+        s.groups = Collections.unmodifiableList(new ArrayList<Group>(groups));
+        s.groupIndex = Collections.unmodifiableMap(index);
+        return s;
+    }
+
+    /**
+     * Returns a copy with the kit list replaced
+     * @param kits
+     * @return new snapshot
+     */
+    public DataSnapshot withKits(List<Kit> kits) {
+        DataSnapshot s = copy();
+        kits = compileKits(kits, items);
+        Map<String, Kit> index = new HashMap<String, Kit>();
+        for (Kit kit : kits) {
+            String key = kit.Name.toLowerCase();
+            if (!index.containsKey(key)) {
+                index.put(key, kit);
+            }
+        }
+        s.kits = Collections.unmodifiableList(new ArrayList<Kit>(kits));
+        s.kitIndex = Collections.unmodifiableMap(index);
+        return s;
+    }
+
+    /**
+     * Returns copies of the kits with ItemIDs and Amounts filled in, item
+     * names looked up and anything that isn't an item left out
+     * @param kits
+     * @param items
+     * @return
+     */
+    private static List<Kit> compileKits(List<Kit> kits, ItemTrie items) {
+        List<Kit> compiled = new ArrayList<Kit>(kits.size());
+        for (Kit kit : kits) {
+            Kit copy = new Kit();
+            copy.ID = kit.ID;
+            copy.Name = kit.Name;
+            copy.IDs = kit.IDs;
+            copy.Delay = kit.Delay;
+            copy.Group = kit.Group;
+
+            int[] ids = new int[kit.IDs.size()], amounts = new int[kit.IDs.size()];
+            int count = 0;
+            for (Map.Entry<String, Integer> entry : kit.IDs.entrySet()) {
+                int id;
+                try {
+                    id = Integer.parseInt(entry.getKey());
+                } catch (NumberFormatException ex) {
+                    id = items.resolve(entry.getKey());
+                }
+                if (id < 0 || id >= ez.c.length || ez.c[id] == null) {
+                    log.log(Level.WARNING, "Kit \"" + kit.Name + "\" has an unknown item \"" + entry.getKey() + "\", leaving it out");
+                    continue;
+                }
+                ids[count] = id;
+                amounts[count] = entry.getValue();
+                count++;
+            }
+            copy.ItemIDs = new int[count];
+            copy.Amounts = new int[count];
+            System.arraycopy(ids, 0, copy.ItemIDs, 0, count);
+            System.arraycopy(amounts, 0, copy.Amounts, 0, count);
+            compiled.add(copy);
+        }
+        return compiled;
+    }
+
+    /**
+     * Returns a copy with the home list replaced
+     * @param homes
+     * @return new snapshot
+     */
+    public DataSnapshot withHomes(List<Warp> homes) {
+        DataSnapshot s = copy();
+        s.homes = Collections.unmodifiableList(new ArrayList<Warp>(homes));
+        s.homeIndex = indexWarps(homes);
+        s.homeGrid = WarpGrid.build(s.homeIndex.values());
+        return s;
+    }
+
+    /**
+     * Returns a copy with the home added, replacing any home with the same
+     * name
+     * @param home
+     * @return new snapshot
+     */
+    public DataSnapshot withHome(Warp home) {
+        DataSnapshot s = copy();
+        List<Warp> list = new ArrayList<Warp>(homes);
+        Map<String, Warp> index = new HashMap<String, Warp>(homeIndex);
+        Warp old = replace(list, index, home);
+        s.homes = Collections.unmodifiableList(list);
+        s.homeIndex = Collections.unmodifiableMap(index);
+        s.homeGrid = homeGrid.with(old, home);
+        return s;
+    }
+
+    /**
+     * Returns a copy with the warp list replaced
+     * @param warps
+     * @return new snapshot
+     */
+    public DataSnapshot withWarps(List<Warp> warps) {
+        DataSnapshot s = copy();
+        s.warps = Collections.unmodifiableList(new ArrayList<Warp>(warps));
+        s.warpIndex = indexWarps(warps);
+        s.warpGrid = WarpGrid.build(s.warpIndex.values());
+        return s;
+    }
+
+    /**
+     * Returns a copy with the warp added, replacing any warp with the same
+     * name
+     * @param warp
+     * @return new snapshot
+     */
+    public DataSnapshot withWarp(Warp warp) {
+        DataSnapshot s = copy();
+        List<Warp> list = new ArrayList<Warp>(warps);
+        Map<String, Warp> index = new HashMap<String, Warp>(warpIndex);
+        Warp old = replace(list, index, warp);
+        s.warps = Collections.unmodifiableList(list);
+        s.warpIndex = Collections.unmodifiableMap(index);
+        s.warpGrid = warpGrid.with(old, warp);
+        return s;
+    }
+
+    /**
+     * Returns a copy without the specified warp
+     * @param warp
+     * @return new snapshot
+     */
+    public DataSnapshot withoutWarp(Warp warp) {
+        DataSnapshot s = copy();
+        List<Warp> list = new ArrayList<Warp>(warps);
+        Map<String, Warp> index = new HashMap<String, Warp>(warpIndex);
+        Warp old = index.remove(warp.Name.toLowerCase());
+        if (old != null) {
+            list.remove(old);
+        }
+        list.remove(warp);
+        s.warps = Collections.unmodifiableList(list);
+        s.warpIndex = Collections.unmodifiableMap(index);
+        s.warpGrid = warpGrid.without(old != null ? old : warp);
+        return s;
+    }
+
+    /**
+     * Returns a copy with the item map replaced
+     * @param items
+     * @return new snapshot
+     */
+    public DataSnapshot withItems(Map<String, Integer> items) {
+        DataSnapshot s = copy();
+        s.items = ItemTrie.build(items);
+        // Kit item names may mean something else now
+        return s.withKits(kits);
+    }
+
+    /**
+     * Returns a copy with the whitelist replaced
+     * @param whiteList
+     * @return new snapshot
+     */
+    public DataSnapshot withWhitelist(List<String> whiteList) {
+        DataSnapshot s = copy();
+        s.whiteList = Collections.unmodifiableList(new ArrayList<String>(whiteList));
+        s.whiteListIndex = indexNames(s.whiteList);
+        return s;
+    }
+
+    /**
+     * Returns a copy with the player added to or removed from the whitelist
+     * @param name
+     * @param add
+     * @return new snapshot
+     */
+    public DataSnapshot withWhitelisted(String name, boolean add) {
+        DataSnapshot s = copy();
+        List<String> list = new ArrayList<String>(whiteList);
+        if (add) {
+            list.add(name);
+        } else {
+            list.remove(name);
+        }
+        s.whiteList = Collections.unmodifiableList(list);
+        s.whiteListIndex = indexNames(list);
+        return s;
+    }
+
+    /**
+     * Returns a copy with the reservelist replaced
+     * @param reserveList
+     * @return new snapshot
+     */
+    public DataSnapshot withReserveList(List<String> reserveList) {
+        DataSnapshot s = copy();
+        s.reserveList = Collections.unmodifiableList(new ArrayList<String>(reserveList));
+        s.reserveListIndex = indexNames(s.reserveList);
+        return s;
+    }
+
+    /**
+     * Returns a copy with the player added to or removed from the reservelist
+     * @param name
+     * @param add
+     * @return new snapshot
+     */
+    public DataSnapshot withReserved(String name, boolean add) {
+        DataSnapshot s = copy();
+        List<String> list = new ArrayList<String>(reserveList);
+        if (add) {
+            list.add(name);
+        } else {
+            list.remove(name);
+        }
+        s.reserveList = Collections.unmodifiableList(list);
+        s.reserveListIndex = indexNames(list);
+        return s;
+    }
+
+    private static Map<String, Warp> indexWarps(List<Warp> warps) {
+        Map<String, Warp> index = new HashMap<String, Warp>();
+        for (Warp warp : warps) {
+            String key = warp.Name.toLowerCase();
+            if (!index.containsKey(key)) {
+                index.put(key, warp);
+            }
+        }
+        return Collections.unmodifiableMap(index);
+    }
+
+    private static Set<String> indexNames(List<String> names) {
+        Set<String> index = new HashSet<String>();
+        for (String name : names) {
+            index.add(name.toLowerCase());
+        }
+        return Collections.unmodifiableSet(index);
+    }
+
+    private static Warp replace(List<Warp> list, Map<String, Warp> index, Warp warp) {
+        Warp old = index.put(warp.Name.toLowerCase(), warp);
+        if (old != null) {
+            list.remove(old);
+        }
+        list.add(warp);
+        return old;
+    }
+}
@@ -1,391 +1,1035 @@
-/* Interface so we can either use MySQL or flat files */
-
-import java.util.List;
-import java.util.Map;
-import java.util.logging.Level;
-import java.util.logging.Logger;
-import net.minecraft.server.MinecraftServer;
-
-/**
- * DataSource is the abstract class for implementing new data sources.
- * @author James
- */
-public abstract class DataSource {
-    
-    protected static final Logger log = Logger.getLogger("Minecraft");
-    protected List<User> users;
-    protected List<String> reserveList;
-    protected List<String> whiteList;
-    protected List<Group> groups;
-    protected List<Kit> kits;
-    protected List<Warp> homes;
-    protected List<Warp> warps;
-    protected Map<String, Integer> items;
-    protected MinecraftServer server;
-    protected final Object userLock = new Object(), groupLock = new Object(), kitLock = new Object();
-    protected final Object homeLock = new Object(), warpLock = new Object(), itemLock = new Object();
-    protected final Object whiteListLock = new Object(), reserveListLock = new Object();
-
-    /**
-     * Initializes the data source
-     */
-    abstract public void initialize();
-
-    /**
-     * Loads all users
-     */
-    abstract public void loadUsers();
-
-    /**
-     * Loads all groups
-     */
-    abstract public void loadGroups();
-
-    /**
-     * Loads all kits
-     */
-    abstract public void loadKits();
-
-    /**
-     * Loads all homes
-     */
-    abstract public void loadHomes();
-
-    /**
-     * Loads all warps
-     */
-    abstract public void loadWarps();
-
-    /**
-     * Loads all items
-     */
-    abstract public void loadItems();
-
-    /**
-     * Loads the whitelist
-     */
-    abstract public void loadWhitelist();
-
-    /**
-     * Loads the reservelist
-     */
-    abstract public void loadReserveList();
-
-    //abstract public void loadBanList();
-
-    /**
-     * Adds user to the list
-     * @param user
-     */
-    abstract public void addUser(User user);
-
-    /**
-     * Modifies the provided user
-     * @param user
-     */
-    abstract public void modifyUser(User user);
-
-    /**
-     * Returns specified user
-     * @param name
-     * @return user
-     */
-    public User getUser(String name) {
-        synchronized (userLock) {
-            for (User user : users) {
-                if (user.Name.equalsIgnoreCase(name)) {
-                    return user;
-                }
-            }
-        }
-        return null;
-    }
-
-    /**
-     * Adds specified group to the list of groups
-     * @param group
-     */
-    abstract public void addGroup(Group group);
-
-    /**
-     * Modifies group
-     * @param group
-     */
-    abstract public void modifyGroup(Group group);
-
-    /**
-     * Returns specified group
-     * @param name
-     * @return group
-     */
-    public Group getGroup(String name) {
-        synchronized (groupLock) {
-            for (Group group : groups) {
-                if (group.Name.equalsIgnoreCase(name)) {
-                    return group;
-                }
-            }
-        }
-
-        if (!name.equals("")) {
-            log.log(Level.INFO, "Unable to find group '" + name + "'. Are you sure you have that group?");
-        }
-
-        return null;
-    }
-
-    /**
-     * Returns the default group
-     * @return default group
-     */
-    public Group getDefaultGroup() {
-        synchronized (groupLock) {
-            for (Group group : groups) {
-                if (group.DefaultGroup) {
-                    return group;
-                }
-            }
-        }
-        return null;
-    }
-
-    /**
-     * Adds kit to list of kits
-     * @param kit
-     */
-    abstract public void addKit(Kit kit);
-
-    /**
-     * Modifies kit
-     * @param kit
-     */
-    abstract public void modifyKit(Kit kit);
-
-    /**
-     * Returns specified kit
-     * @param name
-     * @return kit
-     */
-    public Kit getKit(String name) {
-        synchronized (kitLock) {
-            for (Kit kit : kits) {
-                if (kit.Name.equalsIgnoreCase(name)) {
-                    return kit;
-                }
-            }
-        }
-        return null;
-    }
-
-    /**
-     * Returns true if there are any kits
-     * @return true if there are kits
-     */
-    public boolean hasKits() {
-        synchronized (kitLock) {
-            return kits.size() > 0;
-        }
-    }
-
-    /**
-     * Returns a list of all kits names seperated by commas
-     * @param player
-     * @return string list of kits
-     */
-    public String getKitNames(String player) {
-        StringBuilder builder = new StringBuilder();
-        builder.append(""); //incaseofnull
-
-        synchronized (kitLock) {
-            for (Kit kit : kits) {
-                if (etc.getInstance().isUserInGroup(player, kit.Group) || kit.Group.equals("")) {
-                    builder.append(kit.Name).append(" ");
-                }
-            }
-        }
-
-        return builder.toString();
-    }
-
-    /**
-     * Adds home to list of homes
-     * @param home
-     */
-    abstract public void addHome(Warp home);
-
-    /**
-     * Modifies home
-     * @param home
-     */
-    abstract public void changeHome(Warp home);
-
-    /**
-     * Returns specified home
-     * @param name
-     * @return home
-     */
-    public Warp getHome(String name) {
-        synchronized (homeLock) {
-            for (Warp home : homes) {
-                if (home.Name.equalsIgnoreCase(name)) {
-                    return home;
-                }
-            }
-        }
-        return null;
-    }
-
-    /**
-     * Adds warp to list of warps
-     * @param warp
-     */
-    abstract public void addWarp(Warp warp);
-
-    /**
-     * Modifies warp
-     * @param warp
-     */
-    abstract public void changeWarp(Warp warp);
-
-    /**
-     * Removes warp from list of warps
-     * @param warp
-     */
-    abstract public void removeWarp(Warp warp);
-
-    /**
-     * Returns specified warp
-     * @param name
-     * @return warp
-     */
-    public Warp getWarp(String name) {
-        synchronized (warpLock) {
-            for (Warp warp : warps) {
-                if (warp.Name.equalsIgnoreCase(name)) {
-                    return warp;
-                }
-            }
-        }
-        return null;
-    }
-
-    /**
-     * Returns true if there are any warps
-     * @return true if there are warps
-     */
-    public boolean hasWarps() {
-        synchronized (warpLock) {
-            return warps.size() > 0;
-        }
-    }
-
-    /**
-     * Returns a string containing all warp names the player has access to
-     * @param player
-     * @return string list of warps
-     */
-    public String getWarpNames(String player) {
-        StringBuilder builder = new StringBuilder();
-        builder.append(""); //incaseofnull
-
-        synchronized (warpLock) {
-            for (Warp warp : warps) {
-                if (etc.getInstance().isUserInGroup(player, warp.Group) || warp.Group.equals("")) {
-                    builder.append(warp.Name).append(" ");
-                }
-            }
-        }
-
-        return builder.toString();
-    }
-
-    /**
-     * Returns item id corresponding to item name
-     * @param name
-     * @return item id
-     */
-    public int getItem(String name) {
-        synchronized (itemLock) {
-            if (items.containsKey(name)) {
-                return items.get(name);
-            }
-        }
-        return 0;
-    }
-
-    /**
-     * Adds player to whitelist
-     * @param name
-     */
-    abstract public void addToWhitelist(String name);
-
-    /**
-     * Removes player from whitelist
-     * @param name
-     */
-    abstract public void removeFromWhitelist(String name);
-
-    /**
-     * returns true if there is a whitelist
-     * @return true if whitelist
-     */
-    public boolean hasWhitelist() {
-        synchronized (whiteListLock) {
-            return !whiteList.isEmpty();
-        }
-    }
-
-    /**
-     * Returns true if the player is on the whitelist
-     * @param user
-     * @return
-     */
-    public boolean isUserOnWhitelist(String user) {
-        synchronized (whiteListLock) {
-            for (String name : whiteList) {
-                if (name.equalsIgnoreCase(user)) {
-                    return true;
-                }
-            }
-        }
-        return false;
-    }
-
-    /**
-     * Adds player to reservelist
-     * @param name
-     */
-    abstract public void addToReserveList(String name);
-
-    /**
-     * Removes player from reservelist
-     * @param name
-     */
-    abstract public void removeFromReserveList(String name);
-
-    /**
-     * Returns true if there is a reservelist
-     * @return true if reservelist
-     */
-    public boolean hasReserveList() {
-        synchronized (reserveList) {
-            return !reserveList.isEmpty();
-        }
-    }
-
-    /**
-     * Returns true if player is on reservelist
-     * @param user
-     * @return
-     */
-    public boolean isUserOnReserveList(String user) {
-        synchronized (reserveList) {
-            for (String name : reserveList) {
-                if (name.equalsIgnoreCase(user)) {
-                    return true;
-                }
-            }
-        }
-        return false;
-    }
-}
+/* Interface so we can either use MySQL or flat files */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import net.minecraft.server.MinecraftServer;
+
+/**
+ * DataSource is the abstract class for implementing new data sources.
+ * @author James
+ */
+public abstract class DataSource {
+    
+    protected static final Logger log = Logger.getLogger("Minecraft");
+    protected MinecraftServer server;
+    /**
+     * Everything that's currently loaded. Readers grab this once and never
+     * lock; writers build a new snapshot while holding writeLock and swap it
+     * in.
+     */
+    protected volatile DataSnapshot data = DataSnapshot.EMPTY;
+    protected final Object writeLock = new Object();
+    /**
+     * Names of the tables a data source holds, as used by getVersions
+     */
+    protected static final String[] TABLES = {"users", "groups", "kits", "homes", "warps", "items", "whitelist", "reservelist"};
+    private final Object reloadLock = new Object();
+    private Map<String, Object> versions = Collections.emptyMap();
+    private final AtomicLong reloadsPerformed = new AtomicLong();
+    private final AtomicLong reloadsSkipped = new AtomicLong();
+    /**
+     * Reads tables in parallel for initialize and reload
+     */
+    private final ThreadPoolExecutor loader = newLoader();
+    /**
+     * Homes of players that are online or were looked up recently, used
+     * instead of data when lazy-homes is on. NO_HOME marks players that don't
+     * have one.
+     */
+    private final Map<String, Warp> homeCache = new LinkedHashMap<String, Warp>(16, 0.75f, true) {
+
+        protected boolean removeEldestEntry(Map.Entry<String, Warp> eldest) {
+            if (size() > etc.getInstance().homeCacheSize) {
+                park(eldest.getKey(), eldest.getValue());
+                return true;
+            }
+            return false;
+        }
+    };
+    /**
+     * Homes changed since they were cached, which may still have a write
+     * queued. Guarded by homeCache.
+     */
+    private final Set<String> changedHomes = new HashSet<String>();
+    /**
+     * Changed homes that left the cache, kept until the writes queued before
+     * they left are done so a cache miss never has to wait for the writer.
+     * Guarded by homeCache.
+     */
+    private final Map<String, Warp> unwrittenHomes = new HashMap<String, Warp>();
+    private static final Warp NO_HOME = new Warp();
+    /**
+     * Mutators update data straight away and leave the actual file or
+     * database write to this thread, in the order they were made.
+     */
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(new ThreadFactory() {
+
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "DataSource writer");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    /**
+     * Initializes the data source. Every table is read first and the result
+     * is published in one go, so nobody ever sees a half loaded data source.
+     */
+    public void initialize() {
+        waitForWrites();
+        Map<String, Object> current = getVersions();
+        List<String> tables = new ArrayList<String>(Arrays.asList(TABLES));
+        if (etc.getInstance().lazyHomes) {
+            tables.remove("homes");
+            current.remove("homes");
+            synchronized (homeCache) {
+                homeCache.clear();
+                changedHomes.clear();
+                unwrittenHomes.clear();
+            }
+        }
+        Map<String, Object> results = readTables(tables, "Loaded");
+        publish(results);
+        synchronized (reloadLock) {
+            keepFailed(tables, results, current);
+            versions = current;
+        }
+    }
+
+    /**
+     * Reloads only the tables that changed since they were last loaded.
+     * Tables the data source can't tell a version for are always reloaded.
+     */
+    public void reload() {
+        waitForWrites();
+        synchronized (reloadLock) {
+            Map<String, Object> current = getVersions();
+            if (etc.getInstance().lazyHomes) {
+                // Never loaded as a whole, and turning lazy-homes off again
+                // should load them on the next reload.
+                current.remove("homes");
+            }
+            List<String> changed = new ArrayList<String>();
+            for (String table : TABLES) {
+                if (table.equals("homes") && etc.getInstance().lazyHomes) {
+                    continue;
+                }
+                Object version = current.get(table);
+                if (version != null && version.equals(versions.get(table))) {
+                    reloadsSkipped.incrementAndGet();
+                } else {
+                    changed.add(table);
+                }
+            }
+
+            if (!changed.isEmpty()) {
+                Map<String, Object> results = readTables(changed, "Reloaded");
+                publish(results);
+                reloadsPerformed.addAndGet(changed.size());
+                keepFailed(changed, results, current);
+            }
+            versions = current;
+        }
+    }
+
+    /**
+     * Puts back the last version of every table that failed to read, so it's
+     * read again on the next reload rather than left stale until it changes
+     * again. Must hold reloadLock.
+     * @param tables tables that were read
+     * @param results what was read
+     * @param current versions about to be kept
+     */
+    private void keepFailed(List<String> tables, Map<String, Object> results, Map<String, Object> current) {
+        for (String table : tables) {
+            if (results.get(table) != null) {
+                continue;
+            }
+            Object old = versions.get(table);
+            if (old != null) {
+                current.put(table, old);
+            } else {
+                current.remove(table);
+            }
+        }
+    }
+
+    /**
+     * Reads the specified tables at the same time, up to getLoaderThreads()
+     * at once, and logs how long each one took
+     * @param tables
+     * @param verb
+     * @return contents by table name
+     */
+    private Map<String, Object> readTables(List<String> tables, String verb) {
+        long start = System.nanoTime();
+        int threads = Math.max(1, Math.min(TABLES.length, getLoaderThreads()));
+        synchronized (loader) {
+            if (threads < loader.getCorePoolSize()) {
+                loader.setCorePoolSize(threads);
+                loader.setMaximumPoolSize(threads);
+            } else if (threads > loader.getCorePoolSize()) {
+                loader.setMaximumPoolSize(threads);
+                loader.setCorePoolSize(threads);
+            }
+        }
+        Map<String, Future<Object>> futures = new LinkedHashMap<String, Future<Object>>();
+        final Map<String, Long> times = new ConcurrentHashMap<String, Long>();
+        for (final String table : tables) {
+            futures.put(table, loader.submit(new Callable<Object>() {
+
+                public Object call() {
+                    long tableStart = System.nanoTime();
+                    Object result = readTable(table);
+                    times.put(table, (System.nanoTime() - tableStart) / 1000000L);
+                    return result;
+                }
+            }));
+        }
+
+        Map<String, Object> results = new LinkedHashMap<String, Object>();
+        StringBuilder timing = new StringBuilder();
+        for (Map.Entry<String, Future<Object>> entry : futures.entrySet()) {
+            String table = entry.getKey();
+            try {
+                results.put(table, entry.getValue().get());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                log.log(Level.SEVERE, "Interrupted while reading " + table);
+            } catch (ExecutionException ex) {
+                log.log(Level.SEVERE, "Exception while reading " + table, ex.getCause());
+            }
+            if (timing.length() > 0) {
+                timing.append(", ");
+            }
+            Long time = times.get(table);
+            timing.append(table).append(" ").append(time != null ? time + "ms" : "failed");
+        }
+        log.info(verb + " " + timing + " in " + (System.nanoTime() - start) / 1000000L + "ms");
+        return results;
+    }
+
+    /**
+     * Returns how many tables can be read at the same time. Data sources that
+     * share a limited resource between readers, like database connections,
+     * should return how many they can have at once.
+     * @return
+     */
+    protected int getLoaderThreads() {
+        return TABLES.length;
+    }
+
+    private static ThreadPoolExecutor newLoader() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(TABLES.length, TABLES.length, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "DataSource loader");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        // Only needed at startup and when something changed
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private Object readTable(String table) {
+        if (table.equals("users")) {
+            return readUsers();
+        } else if (table.equals("groups")) {
+            return readGroups();
+        } else if (table.equals("kits")) {
+            return readKits();
+        } else if (table.equals("homes")) {
+            return readHomes();
+        } else if (table.equals("warps")) {
+            return readWarps();
+        } else if (table.equals("items")) {
+            return readItems();
+        } else if (table.equals("whitelist")) {
+            return readWhitelist();
+        } else if (table.equals("reservelist")) {
+            return readReserveList();
+        }
+        return null;
+    }
+
+    /**
+     * Swaps in everything that was read with a single write
+     * @param results contents by table name
+     */
+    @SuppressWarnings("unchecked")
+    private void publish(Map<String, Object> results) {
+        synchronized (writeLock) {
+            DataSnapshot s = data;
+            // Items first, kits are worked out against them
+            if (results.get("items") != null) {
+                s = s.withItems((Map<String, Integer>) results.get("items"));
+            }
+            for (Map.Entry<String, Object> entry : results.entrySet()) {
+                String table = entry.getKey();
+                Object value = entry.getValue();
+                if (value == null || table.equals("items")) {
+                    continue;
+                }
+                if (table.equals("users")) {
+                    s = s.withUsers((List<User>) value);
+                } else if (table.equals("groups")) {
+                    s = s.withGroups((List<Group>) value);
+                } else if (table.equals("kits")) {
+                    s = s.withKits((List<Kit>) value);
+                } else if (table.equals("homes")) {
+                    s = s.withHomes((List<Warp>) value);
+                } else if (table.equals("warps")) {
+                    s = s.withWarps((List<Warp>) value);
+                } else if (table.equals("whitelist")) {
+                    s = s.withWhitelist((List<String>) value);
+                } else if (table.equals("reservelist")) {
+                    s = s.withReserveList((List<String>) value);
+                }
+            }
+            data = s;
+        }
+    }
+
+    /**
+     * Queues a write for the writer thread. Once the data source has been
+     * shut down the write runs straight away on the calling thread.
+     * @param write
+     * @return future that completes once the write is done
+     */
+    protected Future<?> queue(final Runnable write) {
+        Runnable task = new Runnable() {
+
+            public void run() {
+                try {
+                    write.run();
+                } catch (Throwable t) {
+                    log.log(Level.SEVERE, "Exception in queued data source write", t);
+                }
+            }
+        };
+        try {
+            return writer.submit(task);
+        } catch (RejectedExecutionException ex) {
+            FutureTask<Object> now = new FutureTask<Object>(task, null);
+            now.run();
+            return now;
+        }
+    }
+
+    /**
+     * Returns a future that completes once every change made before this call
+     * has been written out
+     * @return
+     */
+    public Future<?> flush() {
+        return queue(new Runnable() {
+
+            public void run() {
+            }
+        });
+    }
+
+    /**
+     * Writes out everything that's still queued and stops the writer thread.
+     * Changes made afterwards are written straight away.
+     */
+    public void shutdown() {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.log(Level.SEVERE, "Gave up waiting for data source writes to finish");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Waits for queued writes, so reading from storage doesn't undo changes
+     * that haven't been written yet
+     */
+    private void waitForWrites() {
+        try {
+            flush().get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ex) {
+        }
+    }
+
+    /**
+     * Returns something that changes whenever a table changes, for every
+     * table in TABLES that the data source can keep track of. The values are
+     * only ever compared with equals.
+     * @return versions by table name
+     */
+    protected Map<String, Object> getVersions() {
+        return new HashMap<String, Object>();
+    }
+
+    /**
+     * Returns how many tables have been reloaded by reload()
+     * @return
+     */
+    public long getReloadsPerformed() {
+        return reloadsPerformed.get();
+    }
+
+    /**
+     * Returns how many tables reload() skipped because they hadn't changed
+     * @return
+     */
+    public long getReloadsSkipped() {
+        return reloadsSkipped.get();
+    }
+
+    /**
+     * Loads all users
+     */
+    public void loadUsers() {
+        List<User> users = readUsers();
+        synchronized (writeLock) {
+            data = data.withUsers(users);
+        }
+    }
+
+    /**
+     * Loads all groups
+     */
+    public void loadGroups() {
+        List<Group> groups = readGroups();
+        synchronized (writeLock) {
+            data = data.withGroups(groups);
+        }
+    }
+
+    /**
+     * Loads all kits
+     */
+    public void loadKits() {
+        List<Kit> kits = readKits();
+        synchronized (writeLock) {
+            data = data.withKits(kits);
+        }
+    }
+
+    /**
+     * Loads all homes
+     */
+    public void loadHomes() {
+        List<Warp> homes = readHomes();
+        synchronized (writeLock) {
+            data = data.withHomes(homes);
+        }
+    }
+
+    /**
+     * Loads all warps
+     */
+    public void loadWarps() {
+        List<Warp> warps = readWarps();
+        synchronized (writeLock) {
+            data = data.withWarps(warps);
+        }
+    }
+
+    /**
+     * Loads all items
+     */
+    public void loadItems() {
+        Map<String, Integer> items = readItems();
+        synchronized (writeLock) {
+            data = data.withItems(items);
+        }
+    }
+
+    /**
+     * Loads the whitelist
+     */
+    public void loadWhitelist() {
+        List<String> whiteList = readWhitelist();
+        synchronized (writeLock) {
+            data = data.withWhitelist(whiteList);
+        }
+    }
+
+    /**
+     * Loads the reservelist
+     */
+    public void loadReserveList() {
+        List<String> reserveList = readReserveList();
+        synchronized (writeLock) {
+            data = data.withReserveList(reserveList);
+        }
+    }
+
+    /**
+     * Reads all users from storage
+     * @return users
+     */
+    abstract protected List<User> readUsers();
+
+    /**
+     * Reads all groups from storage
+     * @return groups
+     */
+    abstract protected List<Group> readGroups();
+
+    /**
+     * Reads all kits from storage
+     * @return kits
+     */
+    abstract protected List<Kit> readKits();
+
+    /**
+     * Reads all homes from storage
+     * @return homes
+     */
+    abstract protected List<Warp> readHomes();
+
+    /**
+     * Reads all warps from storage
+     * @return warps
+     */
+    abstract protected List<Warp> readWarps();
+
+    /**
+     * Reads all items from storage
+     * @return item names and ids
+     */
+    abstract protected Map<String, Integer> readItems();
+
+    /**
+     * Reads the whitelist from storage
+     * @return whitelisted players
+     */
+    abstract protected List<String> readWhitelist();
+
+    /**
+     * Reads the reservelist from storage
+     * @return reserved players
+     */
+    abstract protected List<String> readReserveList();
+
+    /**
+     * Reads all bans from storage
+     * @return bans
+     */
+    abstract protected List<Ban> readBans();
+
+    /**
+     * Saves a ban, replacing any ban on the same name or IP
+     * @param ban
+     */
+    abstract public void addBan(Ban ban);
+
+    /**
+     * Removes a ban from storage
+     * @param ban
+     */
+    abstract public void removeBan(Ban ban);
+
+    /**
+     * Adds user to the list
+     * @param user
+     */
+    abstract public void addUser(User user);
+
+    /**
+     * Modifies the provided user
+     * @param user
+     */
+    abstract public void modifyUser(User user);
+
+    /**
+     * Returns specified user
+     * @param name
+     * @return user
+     */
+    public User getUser(String name) {
+        return data.userIndex.get(name.toLowerCase());
+    }
+
+    /**
+     * Returns the effective permissions of the specified player, with group
+     * inheritance already resolved
+     * @param name
+     * @return profile
+     */
+    public PermissionProfile getProfile(String name) {
+        return data.getProfile(name);
+    }
+
+    /**
+     * Adds specified group to the list of groups
+     * @param group
+     */
+    abstract public void addGroup(Group group);
+
+    /**
+     * Modifies group
+     * @param group
+     */
+    abstract public void modifyGroup(Group group);
+
+    /**
+     * Returns specified group
+     * @param name
+     * @return group
+     */
+    public Group getGroup(String name) {
+        Group group = data.groupIndex.get(name.toLowerCase());
+        if (group != null) {
+            return group;
+        }
+
+        if (!name.equals("")) {
+            log.log(Level.INFO, "Unable to find group '" + name + "'. Are you sure you have that group?");
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the default group
+     * @return default group
+     */
+    public Group getDefaultGroup() {
+        return data.defaultGroup;
+    }
+
+    /**
+     * Adds kit to list of kits
+     * @param kit
+     */
+    abstract public void addKit(Kit kit);
+
+    /**
+     * Modifies kit
+     * @param kit
+     */
+    abstract public void modifyKit(Kit kit);
+
+    /**
+     * Returns specified kit
+     * @param name
+     * @return kit
+     */
+    public Kit getKit(String name) {
+        return data.kitIndex.get(name.toLowerCase());
+    }
+
+    /**
+     * Returns true if there are any kits
+     * @return true if there are kits
+     */
+    public boolean hasKits() {
+        return data.kits.size() > 0;
+    }
+
+    /**
+     * Returns a list of all kits names seperated by commas
+     * @param player
+     * @return string list of kits
+     */
+    public String getKitNames(String player) {
+        StringBuilder builder = new StringBuilder();
+        builder.append(""); //incaseofnull
+
+        for (Kit kit : data.kits) {
+            if (etc.getInstance().isUserInGroup(player, kit.Group) || kit.Group.equals("")) {
+                builder.append(kit.Name).append(" ");
+            }
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Adds home to list of homes
+     * @param home
+     */
+    abstract public void addHome(Warp home);
+
+    /**
+     * Modifies home
+     * @param home
+     */
+    abstract public void changeHome(Warp home);
+
+    /**
+     * Returns specified home
+     * @param name
+     * @return home
+     */
+    public Warp getHome(String name) {
+        if (!etc.getInstance().lazyHomes) {
+            return data.homeIndex.get(name.toLowerCase());
+        }
+
+        String key = name.toLowerCase();
+        synchronized (homeCache) {
+            Warp home = homeCache.get(key);
+            if (home != null) {
+                return home == NO_HOME ? null : home;
+            }
+            // A queued write may be the only copy of this home right now
+            home = unwrittenHomes.get(key);
+            if (home != null) {
+                homeCache.put(key, home);
+                changedHomes.add(key);
+                return home;
+            }
+        }
+
+        Warp home = readHome(name);
+        synchronized (homeCache) {
+            Warp current = homeCache.get(key);
+            if (current != null) {
+                // Set while we were reading
+                return current == NO_HOME ? null : current;
+            }
+            homeCache.put(key, home != null ? home : NO_HOME);
+        }
+        return home;
+    }
+
+    /**
+     * Reads the player's home into the home cache if lazy-homes is on.
+     * Called when the player logs in.
+     * @param name
+     */
+    public void loadHome(String name) {
+        if (etc.getInstance().lazyHomes) {
+            getHome(name);
+        }
+    }
+
+    /**
+     * Drops the player's home from the home cache. Called when the player
+     * logs out.
+     * @param name
+     */
+    public void unloadHome(String name) {
+        String key = name.toLowerCase();
+        synchronized (homeCache) {
+            Warp home = homeCache.remove(key);
+            if (home != null) {
+                park(key, home);
+            }
+        }
+    }
+
+    /**
+     * Keeps a home that's leaving the cache in unwrittenHomes until any write
+     * of it queued so far is done. Must hold the homeCache lock.
+     * @param key
+     * @param home
+     */
+    private void park(final String key, final Warp home) {
+        if (!changedHomes.remove(key)) {
+            return;
+        }
+        unwrittenHomes.put(key, home);
+        // Data sources that hold writes back send them with flush
+        flush();
+        queue(new Runnable() {
+
+            public void run() {
+                synchronized (homeCache) {
+                    if (unwrittenHomes.get(key) == home) {
+                        unwrittenHomes.remove(key);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Reads a single home from storage, for lazy-homes. The default reads all
+     * of them and picks one out, data sources should do better than that.
+     * @param name
+     * @return home, or null if the player doesn't have one
+     */
+    protected Warp readHome(String name) {
+        for (Warp home : readHomes()) {
+            if (home.Name.equalsIgnoreCase(name)) {
+                return home;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds warp to list of warps
+     * @param warp
+     */
+    abstract public void addWarp(Warp warp);
+
+    /**
+     * Modifies warp
+     * @param warp
+     */
+    abstract public void changeWarp(Warp warp);
+
+    /**
+     * Removes warp from list of warps
+     * @param warp
+     */
+    abstract public void removeWarp(Warp warp);
+
+    /**
+     * Returns specified warp
+     * @param name
+     * @return warp
+     */
+    public Warp getWarp(String name) {
+        return data.warpIndex.get(name.toLowerCase());
+    }
+
+    /**
+     * Returns true if there are any warps
+     * @return true if there are warps
+     */
+    public boolean hasWarps() {
+        return data.warps.size() > 0;
+    }
+
+    /**
+     * Returns a string containing all warp names the player has access to
+     * @param player
+     * @return string list of warps
+     */
+    public String getWarpNames(String player) {
+        StringBuilder builder = new StringBuilder();
+        builder.append(""); //incaseofnull
+
+        for (Warp warp : data.warps) {
+            if (etc.getInstance().isUserInGroup(player, warp.Group) || warp.Group.equals("")) {
+                builder.append(warp.Name).append(" ");
+            }
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Returns every warp within radius blocks of the location, nearest first
+     * @param location
+     * @param radius
+     * @return warps
+     */
+    public List<Warp> findWarpsWithin(Location location, double radius) {
+        return data.warpGrid.within(location, radius);
+    }
+
+    /**
+     * Returns every home within radius blocks of the location, nearest first.
+     * With lazy-homes on no homes are kept in memory, so this finds nothing.
+     * @param location
+     * @param radius
+     * @return homes
+     */
+    public List<Warp> findHomesWithin(Location location, double radius) {
+        return data.homeGrid.within(location, radius);
+    }
+
+    /**
+     * Returns item id corresponding to item name, ignoring case
+     * @param name
+     * @return item id
+     */
+    public int getItem(String name) {
+        int id = data.items.get(name);
+        if (id != -1) {
+            return id;
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the id of the item with this name, or the only item whose name
+     * starts with it. Ignores case.
+     * @param name
+     * @return item id, or -1 if there's no such item or more than one
+     */
+    public int resolveItem(String name) {
+        return data.items.resolve(name);
+    }
+
+    /**
+     * Returns up to max item names starting with prefix, for telling the
+     * player what they might have meant
+     * @param prefix
+     * @param max
+     * @return names
+     */
+    public List<String> getItemNames(String prefix, int max) {
+        return data.items.complete(prefix, max);
+    }
+
+    /**
+     * Returns a name for the specified item id
+     * @param id
+     * @return name, or null if there isn't one
+     */
+    public String getItemName(int id) {
+        return data.items.getName(id);
+    }
+
+    /**
+     * Adds player to whitelist
+     * @param name
+     */
+    abstract public void addToWhitelist(String name);
+
+    /**
+     * Removes player from whitelist
+     * @param name
+     */
+    abstract public void removeFromWhitelist(String name);
+
+    /**
+     * returns true if there is a whitelist
+     * @return true if whitelist
+     */
+    public boolean hasWhitelist() {
+        return !data.whiteList.isEmpty();
+    }
+
+    /**
+     * Returns true if the player is on the whitelist
+     * @param user
+     * @return
+     */
+    public boolean isUserOnWhitelist(String user) {
+        return data.whiteListIndex.contains(user.toLowerCase());
+    }
+
+    /**
+     * Adds player to reservelist
+     * @param name
+     */
+    abstract public void addToReserveList(String name);
+
+    /**
+     * Removes player from reservelist
+     * @param name
+     */
+    abstract public void removeFromReserveList(String name);
+
+    /**
+     * Returns true if there is a reservelist
+     * @return true if reservelist
+     */
+    public boolean hasReserveList() {
+        return !data.reserveList.isEmpty();
+    }
+
+    /**
+     * Returns true if player is on reservelist
+     * @param user
+     * @return
+     */
+    public boolean isUserOnReserveList(String user) {
+        return data.reserveListIndex.contains(user.toLowerCase());
+    }
+
+    /*
+     * Copy-on-write helpers for the backends. Each one swaps in a new
+     * snapshot, so callers must not hold on to the old lists.
+     */
+
+    /**
+     * Adds the user, replacing any user with the same name
+     * @param user
+     */
+    protected void putUser(User user) {
+        synchronized (writeLock) {
+            data = data.withUser(user);
+        }
+    }
+
+    /**
+     * Adds the home, replacing any home with the same name
+     * @param home
+     */
+    protected void putHome(Warp home) {
+        if (etc.getInstance().lazyHomes) {
+            synchronized (homeCache) {
+                homeCache.put(home.Name.toLowerCase(), home);
+                changedHomes.add(home.Name.toLowerCase());
+            }
+            return;
+        }
+        synchronized (writeLock) {
+            data = data.withHome(home);
+        }
+    }
+
+    /**
+     * Adds the warp, replacing any warp with the same name
+     * @param warp
+     */
+    protected void putWarp(Warp warp) {
+        synchronized (writeLock) {
+            data = data.withWarp(warp);
+        }
+    }
+
+    /**
+     * Removes the warp
+     * @param warp
+     */
+    protected void dropWarp(Warp warp) {
+        synchronized (writeLock) {
+            data = data.withoutWarp(warp);
+        }
+    }
+
+    /**
+     * Adds the player to or removes the player from the whitelist
+     * @param name
+     * @param add
+     */
+    protected void putWhitelisted(String name, boolean add) {
+        synchronized (writeLock) {
+            data = data.withWhitelisted(name, add);
+        }
+    }
+
+    /**
+     * Adds the player to or removes the player from the reservelist
+     * @param name
+     * @param add
+     */
+    protected void putReserved(String name, boolean add) {
+        synchronized (writeLock) {
+            data = data.withReserved(name, add);
+        }
+    }
+}
@@ -0,0 +1,294 @@
+/* Append-only change log for a flat file */
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * FlatFileJournal.java - Records changes to a flat file as lines appended to
+ * file.journal instead of rewriting the whole file. Lines starting with + add
+ * or replace the entry with the same name, lines starting with - remove it.
+ * The name is everything before the first colon. Every record ends with |
+ * and a CRC32 of the record, so one torn by a crash part way through an
+ * append fails the check and is skipped instead of replacing a good line.
+ * An append after a torn record starts a new line, so it isn't lost with it.
+ *
+ * compact() folds the journal back into the file. It first renames the
+ * journal to file.journal.old so changes can keep coming in, then writes the
+ * merged file to file.tmp and renames it over the original. The journal and
+ * the new file are both synced to disk before they're renamed, so a crash
+ * can't leave a rename pointing at data that never got written. Replaying a
+ * record twice gives the same result, so if the server dies at any point the
+ * next compact() just does it again.
+ */
+public class FlatFileJournal {
+
+    private static final Logger log = Logger.getLogger("Minecraft");
+    private final Object appendLock = new Object();
+    private final Object compactLock = new Object();
+    private final File file, journal, pending, temp;
+
+    /**
+     * Creates a journal for the specified file
+     * @param location
+     */
+    public FlatFileJournal(String location) {
+        file = new File(location);
+        journal = new File(location + ".journal");
+        pending = new File(location + ".journal.old");
+        temp = new File(location + ".tmp");
+    }
+
+    /**
+     * Adds the line, replacing any line with the same name
+     * @param line
+     */
+    public void put(String line) {
+        append("+" + line);
+    }
+
+    /**
+     * Removes every line with the specified name
+     * @param name
+     */
+    public void remove(String name) {
+        append("-" + name);
+    }
+
+    /**
+     * Returns true if there are changes that haven't been folded into the file
+     * yet
+     * @return
+     */
+    public boolean hasChanges() {
+        return journal.length() > 0 || pending.exists();
+    }
+
+    /**
+     * Folds all changes recorded so far into the file
+     */
+    public void compact() {
+        synchronized (compactLock) {
+            if (!file.exists() && temp.exists()) {
+                // Died between deleting the file and moving the new one in
+                temp.renameTo(file);
+            }
+
+            // A left over .old is from a compaction that didn't finish. It's
+            // older than the current journal so it has to go in first.
+            for (int i = 0; i < 2; i++) {
+                if (!pending.exists()) {
+                    synchronized (appendLock) {
+                        if (journal.length() == 0) {
+                            return;
+                        }
+                        try {
+                            sync(journal);
+                        } catch (IOException ex) {
+                            log.log(Level.SEVERE, "Exception while syncing " + journal, ex);
+                            return;
+                        }
+                        if (!journal.renameTo(pending)) {
+                            log.log(Level.SEVERE, "Unable to rotate " + journal);
+                            return;
+                        }
+                    }
+                }
+
+                try {
+                    fold();
+                } catch (IOException ex) {
+                    log.log(Level.SEVERE, "Exception while compacting " + pending + " into " + file, ex);
+                    return;
+                }
+                pending.delete();
+            }
+        }
+    }
+
+    private void append(String record) {
+        synchronized (appendLock) {
+            RandomAccessFile out = null;
+            try {
+                out = new RandomAccessFile(journal, "rw");
+                long length = out.length();
+                String framed = frame(record);
+                if (length > 0) {
+                    out.seek(length - 1);
+                    if (out.read() != '\n') {
+                        // The last append was cut off
+                        framed = "\r\n" + framed;
+                    }
+                }
+                out.seek(length);
+                out.write(framed.getBytes());
+            } catch (IOException ex) {
+                log.log(Level.SEVERE, "Exception while writing to " + journal, ex);
+            } finally {
+                try {
+                    if (out != null) {
+                        out.close();
+                    }
+                } catch (IOException ex) {
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the record as it's written to the journal, with its checksum
+     * and line break
+     * @param record
+     * @return
+     */
+    static String frame(String record) {
+        return record + "|" + checksum(record) + "\r\n";
+    }
+
+    /**
+     * Returns the record from a journal line, or null if it was torn or
+     * damaged
+     * @param line
+     * @return
+     */
+    private static String unframe(String line) {
+        int bar = line.lastIndexOf('|');
+        if (bar == -1 || line.length() - bar != 9) {
+            return null;
+        }
+        String record = line.substring(0, bar);
+        return checksum(record).equals(line.substring(bar + 1)) ? record : null;
+    }
+
+    private static String checksum(String record) {
+        CRC32 crc = new CRC32();
+        try {
+            crc.update(record.getBytes("UTF-8"));
+        } catch (UnsupportedEncodingException ex) {
+            throw new RuntimeException(ex);
+        }
+        String hex = Long.toHexString(crc.getValue());
+        return "00000000".substring(hex.length()) + hex;
+    }
+
+    private void fold() throws IOException {
+        List<String> lines = new ArrayList<String>();
+        Map<String, List<Integer>> index = new HashMap<String, List<Integer>>();
+        if (file.exists()) {
+            BufferedReader reader = new BufferedReader(new FileReader(file));
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.startsWith("#") && !line.equals("")) {
+                        positions(index, nameOf(line)).add(lines.size());
+                    }
+                    lines.add(line);
+                }
+            } finally {
+                reader.close();
+            }
+        }
+
+        int damaged = 0;
+        BufferedReader reader = new BufferedReader(new FileReader(pending));
+        try {
+            String framed;
+            while ((framed = reader.readLine()) != null) {
+                if (framed.length() == 0) {
+                    continue;
+                }
+                String record = unframe(framed);
+                if (record == null) {
+                    damaged++;
+                    continue;
+                }
+                if (record.length() < 2) {
+                    continue;
+                }
+                String line = record.substring(1);
+                List<Integer> at = index.get(nameOf(line).toLowerCase());
+                if (record.charAt(0) == '+') {
+                    if (at == null || at.isEmpty()) {
+                        positions(index, nameOf(line)).add(lines.size());
+                        lines.add(line);
+                    } else {
+                        lines.set(at.get(0), line);
+                        for (int i = 1; i < at.size(); i++) {
+                            lines.set(at.get(i), null);
+                        }
+                        at.subList(1, at.size()).clear();
+                    }
+                } else if (record.charAt(0) == '-' && at != null) {
+                    for (int i : at) {
+                        lines.set(i, null);
+                    }
+                    at.clear();
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        if (damaged > 0) {
+            log.log(Level.WARNING, "Skipped " + damaged + " torn or damaged record(s) in " + pending);
+        }
+
+        FileOutputStream out = new FileOutputStream(temp);
+        try {
+            Writer writer = new OutputStreamWriter(out);
+            for (String line : lines) {
+                if (line != null) {
+                    writer.write(line + "\r\n");
+                }
+            }
+            writer.flush();
+            out.getFD().sync();
+        } finally {
+            out.close();
+        }
+
+        if (!temp.renameTo(file)) {
+            // Windows won't rename over an existing file
+            file.delete();
+            if (!temp.renameTo(file)) {
+                throw new IOException("Unable to move " + temp + " to " + file);
+            }
+        }
+    }
+
+    private static void sync(File f) throws IOException {
+        FileOutputStream out = new FileOutputStream(f, true);
+        try {
+            out.getFD().sync();
+        } finally {
+            out.close();
+        }
+    }
+
+    private static List<Integer> positions(Map<String, List<Integer>> index, String name) {
+        String key = name.toLowerCase();
+        List<Integer> at = index.get(key);
+        if (at == null) {
+            at = new ArrayList<Integer>();
+            index.put(key, at);
+        }
+        return at;
+    }
+
+    private static String nameOf(String line) {
+        int colon = line.indexOf(':');
+        return (colon == -1 ? line : line.substring(0, colon)).trim();
+    }
+}
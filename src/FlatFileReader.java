@@ -0,0 +1,339 @@
+/* Reads the colon separated flat files */
+
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * FlatFileReader.java - Reads a flat file one line at a time straight out of
+ * a char buffer. Blank lines and lines starting with # are skipped, and each
+ * line is cut up at its colons without using regular expressions or making
+ * strings for fields nobody asks for.
+ *
+ * Fields are numbered from 0 and counted the same way String.split(":")
+ * would, so empty fields at the end of a line don't count. Asking for a field
+ * that isn't there or isn't a number throws an IllegalArgumentException that
+ * says where in the file the problem is, so the caller can skip just that
+ * line.
+ */
+public class FlatFileReader {
+
+    private final Reader reader;
+    private final String name;
+    private char[] buf = new char[8192];
+    private int pos = 0, limit = 0;
+    private boolean eof = false, first = true;
+    private int lineNumber = 0, start, end;
+    // Start and end of each field
+    private int[] fields = new int[32];
+    private int count;
+
+    /**
+     * Opens the specified file
+     * @param location
+     * @throws FileNotFoundException
+     */
+    public FlatFileReader(String location) throws FileNotFoundException {
+        this(new FileReader(location), location);
+    }
+
+    /**
+     * Reads from the specified reader
+     * @param reader
+     * @param name name to use in error messages
+     */
+    public FlatFileReader(Reader reader, String name) {
+        this.reader = reader;
+        this.name = name;
+    }
+
+    /**
+     * Moves on to the next line that isn't blank or a comment
+     * @return false at the end of the file
+     * @throws IOException
+     */
+    public boolean nextLine() throws IOException {
+        while (true) {
+            int newline = findNewline();
+            if (newline == -1) {
+                return false;
+            }
+            lineNumber++;
+            start = pos;
+            end = newline;
+            pos = newline;
+            if (pos < limit && buf[pos] == '\r') {
+                pos++;
+            }
+            if (pos < limit && buf[pos] == '\n') {
+                pos++;
+            }
+
+            if (first) {
+                first = false;
+                if (start < end && buf[start] == '\uFEFF') {
+                    start++;
+                }
+            }
+            if (start == end || buf[start] == '#') {
+                continue;
+            }
+            split();
+            return true;
+        }
+    }
+
+    /**
+     * Returns the number of fields on the current line
+     * @return
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the whole of the current line
+     * @return
+     */
+    public String getLine() {
+        return new String(buf, start, end - start);
+    }
+
+    /**
+     * Returns the specified field
+     * @param field
+     * @return
+     */
+    public String getString(int field) {
+        check(field);
+        return new String(buf, fields[field * 2], fields[field * 2 + 1] - fields[field * 2]);
+    }
+
+    /**
+     * Returns the specified field split up at its commas, the same way
+     * String.split(",") would
+     * @param field
+     * @return
+     */
+    public String[] getList(int field) {
+        check(field);
+        int from = fields[field * 2], to = fields[field * 2 + 1];
+        if (from == to) {
+            return new String[]{""};
+        }
+        // Empty entries at the end are dropped
+        while (to > from && buf[to - 1] == ',') {
+            to--;
+        }
+        int entries = from == to ? 0 : 1;
+        for (int i = from; i < to; i++) {
+            if (buf[i] == ',') {
+                entries++;
+            }
+        }
+        String[] list = new String[entries];
+        int n = 0;
+        for (int i = from; i <= to && n < entries; i++) {
+            if (i == to || buf[i] == ',') {
+                list[n++] = new String(buf, from, i - from);
+                from = i + 1;
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Returns true if the specified field is there and equals value
+     * @param field
+     * @param value
+     * @return
+     */
+    public boolean is(int field, String value) {
+        if (field >= count) {
+            return false;
+        }
+        int from = fields[field * 2], to = fields[field * 2 + 1];
+        if (to - from != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (buf[from + i] != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the specified field as an int
+     * @param field
+     * @return
+     */
+    public int getInt(int field) {
+        long value = getLong(field);
+        if (value > Integer.MAX_VALUE || value < Integer.MIN_VALUE) {
+            throw error(field, "Number '" + getString(field) + "' is too big");
+        }
+        return (int) value;
+    }
+
+    /**
+     * Returns the specified field as a long
+     * @param field
+     * @return
+     */
+    public long getLong(int field) {
+        check(field);
+        int from = fields[field * 2], to = fields[field * 2 + 1];
+        int i = from;
+        boolean negative = false;
+        if (i < to && (buf[i] == '-' || buf[i] == '+')) {
+            negative = buf[i] == '-';
+            i++;
+        }
+        if (i == to) {
+            throw error(field, "Expected a number but found '" + getString(field) + "'");
+        }
+        long value = 0;
+        for (; i < to; i++) {
+            char c = buf[i];
+            if (c < '0' || c > '9') {
+                throw error(field, "Expected a number but found '" + getString(field) + "'");
+            }
+            if (value > (Long.MAX_VALUE - (c - '0')) / 10) {
+                throw error(field, "Number '" + getString(field) + "' is too big");
+            }
+            value = value * 10 + (c - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Returns the specified field as a double
+     * @param field
+     * @return
+     */
+    public double getDouble(int field) {
+        String str = getString(field);
+        try {
+            return Double.parseDouble(str);
+        } catch (NumberFormatException ex) {
+            throw error(field, "Expected a number but found '" + str + "'");
+        }
+    }
+
+    /**
+     * Returns the specified field as a float
+     * @param field
+     * @return
+     */
+    public float getFloat(int field) {
+        String str = getString(field);
+        try {
+            return Float.parseFloat(str);
+        } catch (NumberFormatException ex) {
+            throw error(field, "Expected a number but found '" + str + "'");
+        }
+    }
+
+    /**
+     * Makes an exception pointing at the specified field of the current line
+     * @param field
+     * @param message
+     * @return
+     */
+    public IllegalArgumentException error(int field, String message) {
+        int column = field < count ? fields[field * 2] - start + 1 : end - start + 1;
+        return new IllegalArgumentException(name + ":" + lineNumber + ":" + column + ": " + message);
+    }
+
+    /**
+     * Closes the file
+     */
+    public void close() {
+        try {
+            reader.close();
+        } catch (IOException ex) {
+        }
+    }
+
+    private void check(int field) {
+        if (field >= count) {
+            throw error(field, "Expected at least " + (field + 1) + " fields but found " + count);
+        }
+    }
+
+    private void split() {
+        count = 0;
+        int from = start;
+        for (int i = start; i <= end; i++) {
+            if (i == end || buf[i] == ':') {
+                if (count * 2 + 2 > fields.length) {
+                    int[] grown = new int[fields.length * 2];
+                    System.arraycopy(fields, 0, grown, 0, fields.length);
+                    fields = grown;
+                }
+                fields[count * 2] = from;
+                fields[count * 2 + 1] = i;
+                count++;
+                from = i + 1;
+            }
+        }
+        // Like split, empty fields at the end don't count
+        while (count > 0 && fields[count * 2 - 2] == fields[count * 2 - 1]) {
+            count--;
+        }
+    }
+
+    /**
+     * Finds the end of the line starting at pos, reading more of the file if
+     * it isn't all in the buffer yet
+     * @return index of the line break (or end of file), or -1 if there's
+     * nothing left
+     */
+    private int findNewline() throws IOException {
+        int i = pos;
+        while (true) {
+            for (; i < limit; i++) {
+                char c = buf[i];
+                if (c == '\n') {
+                    return i;
+                }
+                if (c == '\r') {
+                    // A \r at the very end might have a \n still to come
+                    if (i + 1 < limit || eof) {
+                        return i;
+                    }
+                    break;
+                }
+            }
+            if (eof) {
+                return pos < limit ? limit : -1;
+            }
+            int offset = pos;
+            fill();
+            i -= offset;
+        }
+    }
+
+    private void fill() throws IOException {
+        if (pos > 0) {
+            System.arraycopy(buf, pos, buf, 0, limit - pos);
+            limit -= pos;
+            pos = 0;
+        }
+        if (limit == buf.length) {
+            // Line longer than the buffer
+            char[] grown = new char[buf.length * 2];
+            System.arraycopy(buf, 0, grown, 0, limit);
+            buf = grown;
+        }
+        int read = reader.read(buf, limit, buf.length - limit);
+        if (read == -1) {
+            eof = true;
+        } else {
+            limit += read;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/* Runs one plugin's hooks in order on a shared pool */
+
+import java.util.LinkedList;
+import java.util.concurrent.Executor;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * HookQueue.java - Hooks waiting to be delivered to one plugin when async
+ * hooks are turned on. Hooks run one at a time in the order they came in,
+ * borrowing a thread from the shared pool only while there's something to
+ * run, so a plugin never sees its hooks out of order or on two threads at
+ * once, and a slow plugin only holds up itself.
+ *
+ * The queue holds at most capacity hooks. When it's full a new hook is
+ * delivered straight away on the caller's thread, the way it would be with
+ * async hooks off, so nothing is lost; a LOGIN is never missing its
+ * DISCONNECT. That hook can overtake the ones still waiting and run
+ * alongside the one being delivered, so it's counted as backpressure and
+ * shows up in the stats (and logged, at most once a minute). A hook the
+ * plugin sets off from inside one of its own hooks, like kicking someone
+ * from onLogin, queues behind the ones already waiting like any other.
+ * Hooks still waiting when the plugin is disabled or unloaded are skipped.
+ */
+public class HookQueue implements Runnable {
+
+    private static final Logger log = Logger.getLogger("Minecraft");
+    private final Plugin plugin;
+    private final String name;
+    private final Executor executor;
+    private final int capacity;
+    private final LinkedList<Runnable> tasks = new LinkedList<Runnable>();
+    private boolean running = false, closed = false;
+    private long delivered = 0, overflowed = 0, lastWarning = 0;
+    private int peak = 0;
+
+    /**
+     * Creates a queue
+     * @param plugin plugin to deliver to
+     * @param executor pool to run on
+     * @param capacity most hooks that can be waiting
+     */
+    public HookQueue(Plugin plugin, Executor executor, int capacity) {
+        this.plugin = plugin;
+        this.name = plugin.getName();
+        this.executor = executor;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Queues a hook, or delivers it on this thread if the queue is full
+     * @param task
+     */
+    public void add(Runnable task) {
+        boolean queued = false, start = false;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            if (tasks.size() >= capacity) {
+                overflowed++;
+                long now = System.currentTimeMillis();
+                if (now - lastWarning > 60000) {
+                    lastWarning = now;
+                    log.log(Level.WARNING, "Hook queue for " + name + " is full (" + capacity + "), delivering hooks on the caller's thread until it catches up");
+                }
+            } else {
+                tasks.add(task);
+                queued = true;
+                peak = Math.max(peak, tasks.size());
+                if (!running) {
+                    running = true;
+                    start = true;
+                }
+            }
+        }
+        if (!queued) {
+            deliver(task);
+        } else if (start) {
+            executor.execute(this);
+        }
+    }
+
+    public void run() {
+        while (true) {
+            Runnable task;
+            synchronized (this) {
+                task = tasks.poll();
+                if (task == null) {
+                    running = false;
+                    return;
+                }
+            }
+            deliver(task);
+        }
+    }
+
+    /**
+     * Drops every hook still waiting and ignores any added later, for when
+     * the plugin is unloaded
+     */
+    public synchronized void close() {
+        closed = true;
+        tasks.clear();
+    }
+
+    /**
+     * Runs a hook, which catches and logs its own exceptions
+     * @param task
+     */
+    private void deliver(Runnable task) {
+        if (!plugin.isEnabled()) {
+            return;
+        }
+        task.run();
+        synchronized (this) {
+            delivered++;
+        }
+    }
+
+    /**
+     * Returns how many hooks are waiting
+     * @return
+     */
+    public synchronized int getDepth() {
+        return tasks.size();
+    }
+
+    /**
+     * Returns the most hooks that have been waiting at once
+     * @return
+     */
+    public synchronized int getPeak() {
+        return peak;
+    }
+
+    /**
+     * Returns how many hooks were delivered on the caller's thread because
+     * the queue was full
+     * @return
+     */
+    public synchronized long getOverflowed() {
+        return overflowed;
+    }
+
+    /**
+     * Returns how many hooks have been delivered
+     * @return
+     */
+    public synchronized long getDelivered() {
+        return delivered;
+    }
+
+    /**
+     * Returns the stats as one line
+     * @return
+     */
+    public synchronized String toString() {
+        return name + ": " + tasks.size() + "/" + capacity + " waiting, peak " + peak + ", " + overflowed + " overflowed, " + delivered + " delivered";
+    }
+}
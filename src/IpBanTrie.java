@@ -0,0 +1,289 @@
+/* IP bans with ranges */
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * IpBanTrie.java - The IP ban list. Besides single addresses, a ban can cover
+ * a block ("1.2.3.0/24"), a range ("1.2.3.4-1.2.3.99") or end in a wildcard
+ * ("1.2.*"). IPv4 bans go into a radix trie keyed on the address as an int,
+ * so checking an address walks at most 32 bits whatever the number of bans.
+ * Anything that isn't IPv4 is matched as it is.
+ */
+public class IpBanTrie {
+
+    private final Node root = new Node(0, 0);
+    private final Set<String> entries = new LinkedHashSet<String>();
+    private final Set<String> others = new HashSet<String>();
+
+    private static final class Node {
+
+        final int prefix, length;
+        // How many bans cover exactly this block
+        int count;
+        final Node[] child = new Node[2];
+
+        Node(int prefix, int length) {
+            this.prefix = prefix & mask(length);
+            this.length = length;
+        }
+    }
+
+    /**
+     * Adds a ban
+     * @param entry address, block, range or wildcard
+     * @return false if it was already on the list
+     */
+    public synchronized boolean add(String entry) {
+        entry = entry.trim().toLowerCase();
+        if (entry.length() == 0 || !entries.add(entry)) {
+            return false;
+        }
+        List<int[]> blocks = parse(entry);
+        if (blocks == null) {
+            others.add(entry);
+        } else {
+            for (int[] block : blocks) {
+                insert(block[0], block[1]);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Removes a ban. Has to be written the same way it was added.
+     * @param entry
+     * @return false if it wasn't on the list
+     */
+    public synchronized boolean remove(String entry) {
+        entry = entry.trim().toLowerCase();
+        if (!entries.remove(entry)) {
+            return false;
+        }
+        List<int[]> blocks = parse(entry);
+        if (blocks == null) {
+            others.remove(entry);
+        } else {
+            for (int[] block : blocks) {
+                Node node = find(block[0], block[1]);
+                if (node != null && node.count > 0) {
+                    node.count--;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if any ban covers the address
+     * @param ip
+     * @return
+     */
+    public synchronized boolean contains(String ip) {
+        long address = parseAddress(ip.trim());
+        if (address < 0) {
+            return others.contains(ip.trim().toLowerCase());
+        }
+        int key = (int) address;
+        Node node = root;
+        while (node != null) {
+            if ((key & mask(node.length)) != node.prefix) {
+                return false;
+            }
+            if (node.count > 0) {
+                return true;
+            }
+            if (node.length == 32) {
+                return false;
+            }
+            node = node.child[bit(key, node.length)];
+        }
+        return false;
+    }
+
+    /**
+     * Returns the bans as they were added
+     * @return
+     */
+    public synchronized Collection<String> getEntries() {
+        return new ArrayList<String>(entries);
+    }
+
+    /**
+     * Returns how many bans there are
+     * @return
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns true if the entry is something this can ban: an IPv4 address,
+     * block, range or wildcard
+     * @param entry
+     * @return
+     */
+    public static boolean isValid(String entry) {
+        return parse(entry.trim()) != null;
+    }
+
+    private void insert(int prefix, int length) {
+        Node node = root;
+        while (true) {
+            if (node.length == length) {
+                node.count++;
+                return;
+            }
+            int side = bit(prefix, node.length);
+            Node next = node.child[side];
+            if (next == null) {
+                next = new Node(prefix, length);
+                next.count = 1;
+                node.child[side] = next;
+                return;
+            }
+            int common = Math.min(Integer.numberOfLeadingZeros(prefix ^ next.prefix), Math.min(length, next.length));
+            if (common == next.length) {
+                node = next;
+                continue;
+            }
+            // Diverges part way along next, put a node in where it splits
+            Node split = new Node(prefix, common);
+            node.child[side] = split;
+            split.child[bit(next.prefix, common)] = next;
+            if (common == length) {
+                split.count = 1;
+            } else {
+                Node leaf = new Node(prefix, length);
+                leaf.count = 1;
+                split.child[bit(prefix, common)] = leaf;
+            }
+            return;
+        }
+    }
+
+    private Node find(int prefix, int length) {
+        Node node = root;
+        while (node != null && node.length <= length) {
+            if ((prefix & mask(node.length)) != node.prefix) {
+                return null;
+            }
+            if (node.length == length) {
+                return node;
+            }
+            node = node.child[bit(prefix, node.length)];
+        }
+        return null;
+    }
+
+    /**
+     * Turns an entry into the blocks it covers, as {prefix, length} pairs
+     * @param entry
+     * @return null if it isn't an IPv4 ban
+     */
+    private static List<int[]> parse(String entry) {
+        List<int[]> blocks = new ArrayList<int[]>();
+        int slash = entry.indexOf('/'), dash = entry.indexOf('-'), star = entry.indexOf('*');
+        if (slash >= 0) {
+            long address = parseAddress(entry.substring(0, slash));
+            int length;
+            try {
+                length = Integer.parseInt(entry.substring(slash + 1));
+            } catch (NumberFormatException ex) {
+                return null;
+            }
+            if (address < 0 || length < 0 || length > 32) {
+                return null;
+            }
+            blocks.add(new int[]{(int) address, length});
+        } else if (dash >= 0) {
+            long start = parseAddress(entry.substring(0, dash).trim());
+            long end = parseAddress(entry.substring(dash + 1).trim());
+            if (start < 0 || end < start) {
+                return null;
+            }
+            // Biggest aligned block that fits each time
+            while (start <= end) {
+                int size = start == 0 ? 32 : Math.min(Long.numberOfTrailingZeros(start), 32);
+                while (start + (1L << size) - 1 > end) {
+                    size--;
+                }
+                blocks.add(new int[]{(int) start, 32 - size});
+                start += 1L << size;
+            }
+        } else if (star >= 0) {
+            if (star != entry.length() - 1 || (star > 0 && entry.charAt(star - 1) != '.')) {
+                return null;
+            }
+            String head = star == 0 ? "" : entry.substring(0, star - 1);
+            String[] parts = head.length() == 0 ? new String[0] : head.split("\\.");
+            if (parts.length > 3) {
+                return null;
+            }
+            long address = 0;
+            for (int i = 0; i < 4; i++) {
+                int octet = i < parts.length ? parseOctet(parts[i]) : 0;
+                if (octet < 0) {
+                    return null;
+                }
+                address = (address << 8) | octet;
+            }
+            blocks.add(new int[]{(int) address, parts.length * 8});
+        } else {
+            long address = parseAddress(entry);
+            if (address < 0) {
+                return null;
+            }
+            blocks.add(new int[]{(int) address, 32});
+        }
+        return blocks;
+    }
+
+    /**
+     * Parses a dotted IPv4 address
+     * @param ip
+     * @return the address, or -1 if it isn't one
+     */
+    public static long parseAddress(String ip) {
+        long address = 0;
+        int octets = 0, start = 0;
+        for (int i = 0; i <= ip.length(); i++) {
+            if (i == ip.length() || ip.charAt(i) == '.') {
+                int octet = parseOctet(ip.substring(start, i));
+                if (octet < 0 || ++octets > 4) {
+                    return -1;
+                }
+                address = (address << 8) | octet;
+                start = i + 1;
+            }
+        }
+        return octets == 4 ? address : -1;
+    }
+
+    private static int parseOctet(String part) {
+        if (part.length() == 0 || part.length() > 3) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = 0; i < part.length(); i++) {
+            char c = part.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value > 255 ? -1 : value;
+    }
+
+    private static int mask(int length) {
+        return length == 0 ? 0 : (int) (0xFFFFFFFFL << (32 - length));
+    }
+
+    private static int bit(int key, int index) {
+        return (key >>> (31 - index)) & 1;
+    }
+}
@@ -0,0 +1,214 @@
+/* Case-insensitive item name lookup */
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ItemTrie.java - Item names from items.txt in a trie, ignoring case. Looking
+ * up a name walks one node per character and hands back a plain int, and a
+ * name can be cut short as long as everything it could be gives the same
+ * item ("obsid" works, "cobble" doesn't since it could be cobblestone or
+ * cobblestonestairs). A full name always wins, so "iron" is iron even though
+ * ironore starts with it too. Also keeps a name for each id for messages and
+ * logs.
+ *
+ * The nodes are kept in parallel arrays rather than as objects. Never
+ * changes once built.
+ */
+public class ItemTrie {
+
+    /**
+     * A trie with no items in it
+     */
+    public static final ItemTrie EMPTY = build(new HashMap<String, Integer>());
+    private static final int NONE = -1, AMBIGUOUS = -2;
+    // Node 0 is the root. Children of a node are chained through sibling.
+    private final char[] chars;
+    private final int[] child, sibling, value, only;
+    private final String[] names;
+    private final int size;
+
+    private ItemTrie(char[] chars, int[] child, int[] sibling, int[] value, int[] only, String[] names, int size) {
+        this.chars = chars;
+        this.child = child;
+        this.sibling = sibling;
+        this.value = value;
+        this.only = only;
+        this.names = names;
+        this.size = size;
+    }
+
+    /**
+     * Builds a trie from item names and ids
+     * @param items
+     * @return
+     */
+    public static ItemTrie build(Map<String, Integer> items) {
+        int capacity = 1;
+        int maxId = -1;
+        for (Map.Entry<String, Integer> entry : items.entrySet()) {
+            capacity += entry.getKey().length();
+            maxId = Math.max(maxId, entry.getValue());
+        }
+
+        char[] chars = new char[capacity];
+        int[] child = new int[capacity], sibling = new int[capacity], value = new int[capacity], only = new int[capacity];
+        child[0] = NONE;
+        sibling[0] = NONE;
+        value[0] = NONE;
+        only[0] = NONE;
+        int nodes = 1;
+        String[] names = new String[maxId + 1];
+        int size = 0;
+
+        for (Map.Entry<String, Integer> entry : items.entrySet()) {
+            String name = entry.getKey();
+            int id = entry.getValue();
+            if (id < 0 || name.length() == 0) {
+                continue;
+            }
+
+            int node = 0;
+            only[0] = merge(only[0], id);
+            for (int i = 0; i < name.length(); i++) {
+                char c = Character.toLowerCase(name.charAt(i));
+                int next = find(chars, child, sibling, node, c);
+                if (next == NONE) {
+                    next = nodes++;
+                    chars[next] = c;
+                    child[next] = NONE;
+                    value[next] = NONE;
+                    only[next] = NONE;
+                    // Keep children in order so complete() comes out sorted
+                    int before = NONE;
+                    int after = child[node];
+                    while (after != NONE && chars[after] < c) {
+                        before = after;
+                        after = sibling[after];
+                    }
+                    sibling[next] = after;
+                    if (before == NONE) {
+                        child[node] = next;
+                    } else {
+                        sibling[before] = next;
+                    }
+                }
+                node = next;
+                only[node] = merge(only[node], id);
+            }
+            if (value[node] == NONE) {
+                size++;
+            }
+            value[node] = id;
+
+            // Shortest name wins, then alphabetical, so it doesn't depend on
+            // the order the map hands them out
+            String current = names[id];
+            if (current == null || name.length() < current.length()
+                    || (name.length() == current.length() && name.compareToIgnoreCase(current) < 0)) {
+                names[id] = name;
+            }
+        }
+        return new ItemTrie(chars, child, sibling, value, only, names, size);
+    }
+
+    /**
+     * Returns the id of the item with exactly this name, ignoring case
+     * @param name
+     * @return id, or -1
+     */
+    public int get(String name) {
+        int node = walk(name);
+        return node == NONE ? NONE : value[node];
+    }
+
+    /**
+     * Returns the id of the item with this name, or the one item whose name
+     * starts with it
+     * @param prefix
+     * @return id, or -1 if there isn't one or it could be more than one
+     */
+    public int resolve(String prefix) {
+        int node = walk(prefix);
+        if (node == NONE || prefix.length() == 0) {
+            return NONE;
+        }
+        if (value[node] != NONE) {
+            return value[node];
+        }
+        return only[node] >= 0 ? only[node] : NONE;
+    }
+
+    /**
+     * Returns up to max item names starting with prefix, in lower case and
+     * alphabetical order
+     * @param prefix
+     * @param max
+     * @return
+     */
+    public List<String> complete(String prefix, int max) {
+        List<String> found = new ArrayList<String>();
+        int node = walk(prefix);
+        if (node != NONE) {
+            collect(node, new StringBuilder(prefix.toLowerCase()), max, found);
+        }
+        return found;
+    }
+
+    /**
+     * Returns a name for the specified item
+     * @param id
+     * @return name, or null if no name has that id
+     */
+    public String getName(int id) {
+        return id >= 0 && id < names.length ? names[id] : null;
+    }
+
+    /**
+     * Returns how many names there are
+     * @return
+     */
+    public int size() {
+        return size;
+    }
+
+    private int walk(String name) {
+        int node = 0;
+        for (int i = 0; i < name.length() && node != NONE; i++) {
+            node = find(chars, child, sibling, node, Character.toLowerCase(name.charAt(i)));
+        }
+        return node;
+    }
+
+    private void collect(int node, StringBuilder path, int max, List<String> found) {
+        if (found.size() >= max) {
+            return;
+        }
+        if (value[node] != NONE) {
+            found.add(path.toString());
+        }
+        for (int next = child[node]; next != NONE; next = sibling[next]) {
+            path.append(chars[next]);
+            collect(next, path, max, found);
+            path.setLength(path.length() - 1);
+        }
+    }
+
+    private static int find(char[] chars, int[] child, int[] sibling, int node, char c) {
+        for (int next = child[node]; next != NONE; next = sibling[next]) {
+            if (chars[next] == c) {
+                return next;
+            }
+        }
+        return NONE;
+    }
+
+    private static int merge(int only, int id) {
+        if (only == NONE || only == id) {
+            return id;
+        }
+        return AMBIGUOUS;
+    }
+}
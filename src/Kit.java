@@ -1,29 +1,37 @@
-
-import java.util.Map;
-
-/**
- *
- * @author James
- */
-public class Kit {
-    /**
-     * Kit ID - Used in database transactions
-     */
-    public int ID;
-    /**
-     * Kit Name
-     */
-    public String Name;
-    /**
-     * List of Item IDs and amounts to give
-     */
-    public Map<String, Integer> IDs;
-    /**
-     * Delay between uses
-     */
-    public int Delay;
-    /**
-     * Group that can use this kit.
-     */
-    public String Group;
-}
+
+import java.util.Map;
+
+/**
+ *
+ * @author James
+ */
+public class Kit {
+    /**
+     * Kit ID - Used in database transactions
+     */
+    public int ID;
+    /**
+     * Kit Name
+     */
+    public String Name;
+    /**
+     * List of Item IDs and amounts to give
+     */
+    public Map<String, Integer> IDs;
+    /**
+     * Item ids to give, worked out from IDs when the kit is loaded
+     */
+    public int[] ItemIDs = new int[0];
+    /**
+     * How many of each item in ItemIDs to give
+     */
+    public int[] Amounts = new int[0];
+    /**
+     * Delay between uses
+     */
+    public int Delay;
+    /**
+     * Group that can use this kit.
+     */
+    public String Group;
+}
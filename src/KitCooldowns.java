@@ -0,0 +1,230 @@
+/* Kit cooldowns that last through relogs and restarts */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * KitCooldowns.java - Remembers who got which kit and until when they have to
+ * wait, in a small binary file, so logging out or restarting the server
+ * doesn't reset anything. Kits with a negative delay can only ever be had
+ * once.
+ *
+ * Everything is kept in memory, and the end times there are what counts.
+ * Each cooldown also has a timer on the TimerWheel that drops it once it
+ * runs out, so the map doesn't fill up, and the file is only written every
+ * so often, and only if something changed. The writes happen on their own
+ * thread so they never hold up the wheel, and one save at a time, since the
+ * shutdown hook can save while a timed one is still going.
+ *
+ * File format: magic, count, then for each entry the player, the kit (both
+ * writeUTF) and when the cooldown ends in milliseconds, or -1 for never.
+ */
+public class KitCooldowns {
+
+    private static final Logger log = Logger.getLogger("Minecraft");
+    private static final int MAGIC = 0x684b4344; // hKCD
+    private static final long FOREVER = -1;
+    private static final int MS_PER_TICK = 50;
+    private final File file, temp;
+    private final TimerWheel timers;
+    private final Map<TimerKey, Long> ends = new HashMap<TimerKey, Long>();
+    private boolean dirty = false;
+    private final Object saveLock = new Object();
+    private ScheduledExecutorService saver;
+    private final TimerWheel.Listener expired = new TimerWheel.Listener() {
+
+        public void expired(Object key) {
+            synchronized (KitCooldowns.this) {
+                Long end = ends.get((TimerKey) key);
+                if (end == null || end == FOREVER) {
+                    return;
+                }
+                // The wheel can run ahead of the clock after a stall, or the
+                // cooldown was started again just as this one ran out
+                long left = end - System.currentTimeMillis();
+                if (left > 0) {
+                    timers.schedule(key, (left + MS_PER_TICK - 1) / MS_PER_TICK, this);
+                } else {
+                    ends.remove((TimerKey) key);
+                    dirty = true;
+                }
+            }
+        }
+    };
+
+    /**
+     * Creates a store that saves to the specified file
+     * @param location
+     * @param timers
+     */
+    public KitCooldowns(String location, TimerWheel timers) {
+        this.file = new File(location);
+        this.temp = new File(location + ".tmp");
+        this.timers = timers;
+    }
+
+    /**
+     * Returns true if the player has to wait before getting the kit again
+     * @param player
+     * @param kit
+     * @return
+     */
+    public synchronized boolean isCoolingDown(String player, String kit) {
+        Long end = ends.get(new TimerKey(player, kit));
+        return end != null && (end == FOREVER || end > System.currentTimeMillis());
+    }
+
+    /**
+     * Returns true if the kit can only be had once and the player already
+     * had it
+     * @param player
+     * @param kit
+     * @return
+     */
+    public synchronized boolean isUsedUp(String player, String kit) {
+        Long end = ends.get(new TimerKey(player, kit));
+        return end != null && end == FOREVER;
+    }
+
+    /**
+     * Starts the cooldown on the kit for the player
+     * @param player
+     * @param kit
+     * @param delay ticks to wait, negative for never again
+     */
+    public synchronized void start(String player, String kit, int delay) {
+        TimerKey key = new TimerKey(player, kit);
+        if (delay < 0) {
+            timers.cancel(key);
+            ends.put(key, FOREVER);
+        } else {
+            ends.put(key, System.currentTimeMillis() + (long) delay * MS_PER_TICK);
+            timers.schedule(key, delay, expired);
+        }
+        dirty = true;
+    }
+
+    /**
+     * Reads the file, dropping anything that ran out while the server was
+     * down
+     */
+    public synchronized void load() {
+        if (!file.exists()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        int count = 0;
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            try {
+                if (in.readInt() != MAGIC) {
+                    throw new IOException("Not a kit cooldown file");
+                }
+                int size = in.readInt();
+                for (int i = 0; i < size; i++) {
+                    TimerKey key = new TimerKey(in.readUTF(), in.readUTF());
+                    long end = in.readLong();
+                    if (end == FOREVER) {
+                        ends.put(key, FOREVER);
+                    } else if (end > now) {
+                        ends.put(key, end);
+                        timers.schedule(key, (end - now + MS_PER_TICK - 1) / MS_PER_TICK, expired);
+                    } else {
+                        dirty = true;
+                        continue;
+                    }
+                    count++;
+                }
+            } finally {
+                in.close();
+            }
+        } catch (IOException ex) {
+            log.log(Level.SEVERE, "Exception while reading " + file, ex);
+        }
+        log.info("Loaded " + count + " kit cooldowns");
+    }
+
+    /**
+     * Writes everything to the file if anything changed since the last save
+     */
+    public void save() {
+        synchronized (saveLock) {
+            write();
+        }
+    }
+
+    private void write() {
+        Map<TimerKey, Long> copy;
+        synchronized (this) {
+            if (!dirty) {
+                return;
+            }
+            copy = new HashMap<TimerKey, Long>(ends);
+            dirty = false;
+        }
+
+        try {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+            try {
+                out.writeInt(MAGIC);
+                out.writeInt(copy.size());
+                for (Map.Entry<TimerKey, Long> entry : copy.entrySet()) {
+                    out.writeUTF(entry.getKey().getPlayer());
+                    out.writeUTF(entry.getKey().getName());
+                    out.writeLong(entry.getValue());
+                }
+            } finally {
+                out.close();
+            }
+            if (!temp.renameTo(file)) {
+                file.delete();
+                if (!temp.renameTo(file)) {
+                    throw new IOException("Unable to move " + temp + " to " + file);
+                }
+            }
+        } catch (IOException ex) {
+            synchronized (this) {
+                dirty = true;
+            }
+            log.log(Level.SEVERE, "Exception while writing " + file, ex);
+        }
+    }
+
+    /**
+     * Saves every interval milliseconds on a thread of its own
+     * @param interval
+     */
+    public synchronized void saveEvery(long interval) {
+        if (saver == null) {
+            saver = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "Kit cooldowns save");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        interval = Math.max(1, interval);
+        saver.scheduleWithFixedDelay(new Runnable() {
+
+            public void run() {
+                save();
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+}
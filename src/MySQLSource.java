@@ -1,762 +1,927 @@
-/* MySQL Data Source */
-
-import java.io.File;
-import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
-import java.sql.Statement;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.logging.Level;
-
-/**
- * MySQLSource.java - Used for accessing users and such from a mysql database
- * @author James
- */
-public class MySQLSource extends DataSource {
-
-    private String driver, username, password, db;
-
-    private Connection getConnection() {
-        try {
-            return DriverManager.getConnection(db + "?autoReconnect=true&user=" + username + "&password=" + password);
-        } catch (SQLException ex) {
-            log.log(Level.SEVERE, "Unable to retreive connection", ex);
-        }
-        return null;
-    }
-
-    public void initialize() {
-        PropertiesFile properties = new PropertiesFile("mysql.properties");
-        driver = properties.getString("driver", "com.mysql.jdbc.Driver");
-        username = properties.getString("user", "root");
-        password = properties.getString("pass", "root");
-        db = properties.getString("db", "jdbc:mysql://localhost:3306/minecraft");
-
-        try {
-            Class.forName(driver);
-        } catch (ClassNotFoundException ex) {
-            log.log(Level.SEVERE, "Unable to find class " + driver, ex);
-        }
-
-        loadUsers();
-        loadGroups();
-        loadKits();
-        loadHomes();
-        loadWarps();
-        loadItems();
-        loadWhitelist();
-        loadReserveList();
-    }
-
-    public void loadUsers() {
-        synchronized (userLock) {
-            users = new ArrayList<User>();
-            Connection conn = null;
-            PreparedStatement ps = null;
-            ResultSet rs = null;
-            try {
-                conn = getConnection();
-                ps = conn.prepareStatement("SELECT * FROM users");
-                rs = ps.executeQuery();
-                while (rs.next()) {
-                    User user = new User();
-                    user.ID = rs.getInt("id");
-                    user.Name = rs.getString("name");
-                    user.Groups = rs.getString("groups").split(",");
-                    user.Commands = rs.getString("commands").split(",");
-                    user.Prefix = rs.getString("prefix");
-                    user.Administrator = rs.getBoolean("admin");
-                    user.CanModifyWorld = rs.getBoolean("canmodifyworld");
-                    user.IgnoreRestrictions = rs.getBoolean("ignoresrestrictions");
-                    user.IPs = rs.getString("ip").split(",");
-                    users.add(user);
-                }
-            } catch (SQLException ex) {
-                log.log(Level.SEVERE, "Unable to retreive users from user table", ex);
-            } finally {
-                try {
-                    if (ps != null) {
-                        ps.close();
-                    }
-                    if (rs != null) {
-                        rs.close();
-                    }
-                    if (conn != null) {
-                        conn.close();
-                    }
-                } catch (SQLException ex) {
-                }
-            }
-        }
-    }
-
-    public void loadGroups() {
-        synchronized (groupLock) {
-            groups = new ArrayList<Group>();
-            Connection conn = null;
-            PreparedStatement ps = null;
-            ResultSet rs = null;
-            try {
-                conn = getConnection();
-                ps = conn.prepareStatement("SELECT * FROM groups");
-                rs = ps.executeQuery();
-                while (rs.next()) {
-                    Group group = new Group();
-                    group.Administrator = rs.getBoolean("admin");
-                    group.CanModifyWorld = rs.getBoolean("canmodifyworld");
-                    group.Commands = rs.getString("commands").split(",");
-                    group.DefaultGroup = rs.getBoolean("defaultgroup");
-                    group.ID = rs.getInt("id");
-                    group.IgnoreRestrictions = rs.getBoolean("ignoresrestrictions");
-                    group.InheritedGroups = rs.getString("inheritedgroups").split(",");
-                    group.Name = rs.getString("name");
-                    group.Prefix = rs.getString("prefix");
-                    groups.add(group);
-                }
-            } catch (SQLException ex) {
-                log.log(Level.SEVERE, "Unable to retreive groups from group table", ex);
-            } finally {
-                try {
-                    if (ps != null) {
-                        ps.close();
-                    }
-                    if (rs != null) {
-                        rs.close();
-                    }
-                    if (conn != null) {
-                        conn.close();
-                    }
-                } catch (SQLException ex) {
-                }
-            }
-        }
-    }
-
-    public void loadKits() {
-        synchronized (kitLock) {
-            kits = new ArrayList<Kit>();
-            Connection conn = null;
-            PreparedStatement ps = null;
-            ResultSet rs = null;
-            try {
-                conn = getConnection();
-                ps = conn.prepareStatement("SELECT * FROM kits");
-                rs = ps.executeQuery();
-                while (rs.next()) {
-                    Kit kit = new Kit();
-                    kit.Delay = rs.getInt("delay");
-                    kit.Group = rs.getString("group");
-                    kit.ID = rs.getInt("id");
-                    kit.Name = rs.getString("name");
-                    kit.IDs = new HashMap<String, Integer>();
-
-                    String[] ids = rs.getString("items").split(",");
-                    for (String str : ids) {
-                        String id = "";
-                        int amount = 1;
-                        if (str.contains(" ")) {
-                            id = str.split(" ")[0];
-                            amount = Integer.parseInt(str.split(" ")[1]);
-                        } else {
-                            id = str;
-                        }
-                        kit.IDs.put(id, amount);
-                    }
-                    kits.add(kit);
-                }
-            } catch (SQLException ex) {
-                log.log(Level.SEVERE, "Unable to retreive kits from kit table", ex);
-            } finally {
-                try {
-                    if (ps != null) {
-                        ps.close();
-                    }
-                    if (rs != null) {
-                        rs.close();
-                    }
-                    if (conn != null) {
-                        conn.close();
-                    }
-                } catch (SQLException ex) {
-                }
-            }
-        }
-    }
-
-    public void loadHomes() {
-        synchronized (homeLock) {
-            homes = new ArrayList<Warp>();
-            if (!etc.getInstance().saveHomes) {
-                return;
-            }
-            Connection conn = null;
-            PreparedStatement ps = null;
-            ResultSet rs = null;
-            try {
-                conn = getConnection();
-                ps = conn.prepareStatement("SELECT * FROM homes");
-                rs = ps.executeQuery();
-                while (rs.next()) {
-                    Location location = new Location();
-                    location.x = rs.getDouble("x");
-                    location.y = rs.getDouble("y");
-                    location.z = rs.getDouble("z");
-                    location.rotX = rs.getFloat("rotX");
-                    location.rotY = rs.getFloat("rotY");
-                    Warp home = new Warp();
-                    home.ID = rs.getInt("id");
-                    home.Location = location;
-                    home.Name = rs.getString("name");
-                    home.Group = rs.getString("group");
-                    homes.add(home);
-                }
-            } catch (SQLException ex) {
-                log.log(Level.SEVERE, "Unable to retreive homes from home table", ex);
-            } finally {
-                try {
-                    if (ps != null) {
-                        ps.close();
-                    }
-                    if (rs != null) {
-                        rs.close();
-                    }
-                    if (conn != null) {
-                        conn.close();
-                    }
-                } catch (SQLException ex) {
-                }
-            }
-        }
-    }
-
-    public void loadWarps() {
-        synchronized (warpLock) {
-            warps = new ArrayList<Warp>();
-            Connection conn = null;
-            PreparedStatement ps = null;
-            ResultSet rs = null;
-            try {
-                conn = getConnection();
-                ps = conn.prepareStatement("SELECT * FROM warps");
-                rs = ps.executeQuery();
-                while (rs.next()) {
-                    Location location = new Location();
-                    location.x = rs.getDouble("x");
-                    location.y = rs.getDouble("y");
-                    location.z = rs.getDouble("z");
-                    location.rotX = rs.getFloat("rotX");
-                    location.rotY = rs.getFloat("rotY");
-                    Warp warp = new Warp();
-                    warp.ID = rs.getInt("id");
-                    warp.Location = location;
-                    warp.Name = rs.getString("name");
-                    warp.Group = rs.getString("group");
-                    warps.add(warp);
-                }
-            } catch (SQLException ex) {
-                log.log(Level.SEVERE, "Unable to retreive warps from warp table", ex);
-            } finally {
-                try {
-                    if (ps != null) {
-                        ps.close();
-                    }
-                    if (rs != null) {
-                        rs.close();
-                    }
-                    if (conn != null) {
-                        conn.close();
-                    }
-                } catch (SQLException ex) {
-                }
-            }
-        }
-    }
-
-    public void loadItems() {
-        synchronized (itemLock) {
-            items = new HashMap<String, Integer>();
-            Connection conn = null;
-            PreparedStatement ps = null;
-            ResultSet rs = null;
-            try {
-                conn = getConnection();
-                ps = conn.prepareStatement("SELECT * FROM items");
-                rs = ps.executeQuery();
-                while (rs.next()) {
-                    items.put(rs.getString("name"), rs.getInt("itemid"));
-                }
-            } catch (SQLException ex) {
-                log.log(Level.SEVERE, "Unable to retreive items from item table", ex);
-            } finally {
-                try {
-                    if (ps != null) {
-                        ps.close();
-                    }
-                    if (rs != null) {
-                        rs.close();
-                    }
-                    if (conn != null) {
-                        conn.close();
-                    }
-                } catch (SQLException ex) {
-                }
-            }
-        }
-    }
-
-    public void loadWhitelist() {
-        synchronized (whiteListLock) {
-            whiteList = new ArrayList<String>();
-            Connection conn = null;
-            PreparedStatement ps = null;
-            ResultSet rs = null;
-            try {
-                conn = getConnection();
-                ps = conn.prepareStatement("SELECT * FROM whitelist");
-                rs = ps.executeQuery();
-                while (rs.next()) {
-                    whiteList.add(rs.getString(1));
-                }
-            } catch (SQLException ex) {
-                log.log(Level.SEVERE, "Unable to retreive users from whitelist table", ex);
-            } finally {
-                try {
-                    if (ps != null) {
-                        ps.close();
-                    }
-                    if (rs != null) {
-                        rs.close();
-                    }
-                    if (conn != null) {
-                        conn.close();
-                    }
-                } catch (SQLException ex) {
-                }
-            }
-        }
-    }
-
-    public void loadReserveList() {
-        synchronized (reserveListLock) {
-            reserveList = new ArrayList<String>();
-            Connection conn = null;
-            PreparedStatement ps = null;
-            ResultSet rs = null;
-            try {
-                conn = getConnection();
-                ps = conn.prepareStatement("SELECT * FROM reservelist");
-                rs = ps.executeQuery();
-                while (rs.next()) {
-                    reserveList.add(rs.getString(1));
-                }
-            } catch (SQLException ex) {
-                log.log(Level.SEVERE, "Unable to retreive users from whitelist table", ex);
-            } finally {
-                try {
-                    if (ps != null) {
-                        ps.close();
-                    }
-                    if (rs != null) {
-                        rs.close();
-                    }
-                    if (conn != null) {
-                        conn.close();
-                    }
-                } catch (SQLException ex) {
-                }
-            }
-        }
-    }
-
-    //Users
-    public void addUser(User user) {
-        Connection conn = null;
-        PreparedStatement ps = null;
-        ResultSet rs = null;
-        try {
-            conn = getConnection();
-            ps = conn.prepareStatement("INSERT INTO users (name, groups, prefix, commands, admin, canmodifyworld, ignoresrestrictions) VALUES (?,?,?,?,?,?,?)", Statement.RETURN_GENERATED_KEYS);
-            ps.setString(1, user.Name);
-            ps.setString(2, id.combineSplit(0, user.Groups, ","));
-            ps.setString(3, user.Prefix);
-            ps.setString(4, id.combineSplit(0, user.Commands, ","));
-            ps.setBoolean(5, user.Administrator);
-            ps.setBoolean(6, user.CanModifyWorld);
-            ps.setBoolean(7, user.IgnoreRestrictions);
-            ps.executeUpdate();
-
-            rs = ps.getGeneratedKeys();
-            if (rs.next()) {
-                user.ID = rs.getInt(1);
-                synchronized (userLock) {
-                    users.add(user);
-                }
-            }
-        } catch (SQLException ex) {
-            log.log(Level.SEVERE, "Unable to insert user into users table", ex);
-        } finally {
-            try {
-                if (ps != null) {
-                    ps.close();
-                }
-                if (rs != null) {
-                    rs.close();
-                }
-                if (conn != null) {
-                    conn.close();
-                }
-            } catch (SQLException ex) {
-            }
-        }
-    }
-
-    public void modifyUser(User user) {
-        Connection conn = null;
-        PreparedStatement ps = null;
-        try {
-            conn = getConnection();
-            ps = conn.prepareStatement("UPDATE users SET groups = ?, prefix = ?, commands = ?, admin = ?, canmodifyworld = ?, ignoresrestrictions = ? WHERE id = ?");
-            ps.setString(1, id.combineSplit(0, user.Groups, ","));
-            ps.setString(2, user.Prefix);
-            ps.setString(3, id.combineSplit(0, user.Commands, ","));
-            ps.setBoolean(4, user.Administrator);
-            ps.setBoolean(5, user.CanModifyWorld);
-            ps.setBoolean(6, user.IgnoreRestrictions);
-            ps.setInt(7, user.ID);
-            ps.executeUpdate();
-        } catch (SQLException ex) {
-            log.log(Level.SEVERE, "Unable to update user in users table", ex);
-        } finally {
-            try {
-                if (ps != null) {
-                    ps.close();
-                }
-                if (conn != null) {
-                    conn.close();
-                }
-            } catch (SQLException ex) {
-            }
-        }
-    }
-
-    //Groups
-    public void addGroup(Group group) {
-        throw new UnsupportedOperationException("Not supported yet.");
-    }
-
-    public void modifyGroup(Group group) {
-        throw new UnsupportedOperationException("Not supported yet.");
-    }
-
-    //Kits
-    public void addKit(Kit kit) {
-        throw new UnsupportedOperationException("Not supported yet.");
-    }
-
-    public void modifyKit(Kit kit) {
-        throw new UnsupportedOperationException("Not supported yet.");
-    }
-
-    //Homes
-    public void addHome(Warp home) {
-        Connection conn = null;
-        PreparedStatement ps = null;
-        ResultSet rs = null;
-        try {
-            conn = getConnection();
-            ps = conn.prepareStatement("INSERT INTO homes (name, x, y, z, rotX, rotY, `group`) VALUES(?, ?, ?, ?, ?, ?, ?)", Statement.RETURN_GENERATED_KEYS);
-            ps.setString(1, home.Name);
-            ps.setDouble(2, home.Location.x);
-            ps.setDouble(3, home.Location.y);
-            ps.setDouble(4, home.Location.z);
-            ps.setFloat(5, home.Location.rotX);
-            ps.setFloat(6, home.Location.rotY);
-            ps.setString(7, home.Group);
-            ps.executeUpdate();
-
-            rs = ps.getGeneratedKeys();
-            if (rs.next()) {
-                home.ID = rs.getInt(1);
-                synchronized (homeLock) {
-                    homes.add(home);
-                }
-            }
-        } catch (SQLException ex) {
-            log.log(Level.SEVERE, "Unable to insert home into homes table", ex);
-        } finally {
-            try {
-                if (ps != null) {
-                    ps.close();
-                }
-                if (rs != null) {
-                    rs.close();
-                }
-                if (conn != null) {
-                    conn.close();
-                }
-            } catch (SQLException ex) {
-            }
-        }
-    }
-
-    public void changeHome(Warp home) {
-        Connection conn = null;
-        PreparedStatement ps = null;
-        try {
-            conn = getConnection();
-            ps = conn.prepareStatement("UPDATE homes SET x = ?, y = ?, z = ?, rotX = ?, rotY = ?, `group` = ? WHERE name = ?");
-            ps.setDouble(1, home.Location.x);
-            ps.setDouble(2, home.Location.y);
-            ps.setDouble(3, home.Location.z);
-            ps.setFloat(4, home.Location.rotX);
-            ps.setFloat(5, home.Location.rotY);
-            ps.setString(6, home.Group);
-            ps.setString(7, home.Name);
-            ps.executeUpdate();
-
-            synchronized (homeLock) {
-                Warp toRem = null;
-                for (Warp h : homes) {
-                    if (h.Name.equalsIgnoreCase(home.Name)) {
-                        toRem = h;
-                    }
-                }
-                if (toRem != null) {
-                    homes.remove(toRem);
-                }
-                homes.add(home);
-            }
-        } catch (SQLException ex) {
-            log.log(Level.SEVERE, "Unable to update home in homes table", ex);
-        } finally {
-            try {
-                if (ps != null) {
-                    ps.close();
-                }
-                if (conn != null) {
-                    conn.close();
-                }
-            } catch (SQLException ex) {
-            }
-        }
-    }
-
-    //Warps
-    public void addWarp(Warp warp) {
-        Connection conn = null;
-        PreparedStatement ps = null;
-        ResultSet rs = null;
-        try {
-            conn = getConnection();
-            ps = conn.prepareStatement("INSERT INTO warps (name, x, y, z, rotX, rotY, `group`) VALUES(?, ?, ?, ?, ?, ?, ?)", Statement.RETURN_GENERATED_KEYS);
-            ps.setString(1, warp.Name);
-            ps.setDouble(2, warp.Location.x);
-            ps.setDouble(3, warp.Location.y);
-            ps.setDouble(4, warp.Location.z);
-            ps.setFloat(5, warp.Location.rotX);
-            ps.setFloat(6, warp.Location.rotY);
-            ps.setString(7, warp.Group);
-            ps.executeUpdate();
-
-            rs = ps.getGeneratedKeys();
-            if (rs.next()) {
-                warp.ID = rs.getInt(1);
-                synchronized (warpLock) {
-                    warps.add(warp);
-                }
-            }
-        } catch (SQLException ex) {
-            log.log(Level.SEVERE, "Unable to insert warp into warps table", ex);
-        } finally {
-            try {
-                if (ps != null) {
-                    ps.close();
-                }
-                if (rs != null) {
-                    rs.close();
-                }
-                if (conn != null) {
-                    conn.close();
-                }
-            } catch (SQLException ex) {
-            }
-        }
-    }
-
-    public void changeWarp(Warp warp) {
-        Connection conn = null;
-        PreparedStatement ps = null;
-        try {
-            conn = getConnection();
-            ps = conn.prepareStatement("UPDATE warps SET x = ?, y = ?, z = ?, rotX = ?, rotY = ?, `group` = ? WHERE name = ?");
-            ps.setDouble(1, warp.Location.x);
-            ps.setDouble(2, warp.Location.y);
-            ps.setDouble(3, warp.Location.z);
-            ps.setFloat(4, warp.Location.rotX);
-            ps.setFloat(5, warp.Location.rotY);
-            ps.setString(6, warp.Group);
-            ps.setString(7, warp.Name);
-            ps.executeUpdate();
-
-            synchronized (warpLock) {
-                Warp toRem = null;
-                for (Warp h : warps) {
-                    if (h.Name.equalsIgnoreCase(warp.Name)) {
-                        toRem = h;
-                    }
-                }
-                if (toRem != null) {
-                    warps.remove(toRem);
-                }
-                warps.add(warp);
-            }
-        } catch (SQLException ex) {
-            log.log(Level.SEVERE, "Unable to update warp in warps table", ex);
-        } finally {
-            try {
-                if (ps != null) {
-                    ps.close();
-                }
-                if (conn != null) {
-                    conn.close();
-                }
-            } catch (SQLException ex) {
-            }
-        }
-    }
-
-    public void removeWarp(Warp warp) {
-        Connection conn = null;
-        PreparedStatement ps = null;
-        try {
-            conn = getConnection();
-            ps = conn.prepareStatement("DELETE FROM warps WHERE id = ?");
-            ps.setDouble(1, warp.ID);
-            ps.executeUpdate();
-        } catch (SQLException ex) {
-            log.log(Level.SEVERE, "Unable to delete warp from warps table", ex);
-        } finally {
-            try {
-                if (ps != null) {
-                    ps.close();
-                }
-                if (conn != null) {
-                    conn.close();
-                }
-            } catch (SQLException ex) {
-            }
-        }
-        synchronized (warpLock) {
-            warps.remove(warp);
-        }
-    }
-
-    //Whitelist
-    public void addToWhitelist(String name) {
-        Connection conn = null;
-        PreparedStatement ps = null;
-        try {
-            conn = getConnection();
-            ps = conn.prepareStatement("INSERT INTO whitelist VALUES(?)");
-            ps.setString(1, name);
-            ps.executeUpdate();
-            synchronized (whiteListLock) {
-                whiteList.add(name);
-            }
-        } catch (SQLException ex) {
-            log.log(Level.SEVERE, "Unable to update whitelist", ex);
-        } finally {
-            try {
-                if (ps != null) {
-                    ps.close();
-                }
-                if (conn != null) {
-                    conn.close();
-                }
-            } catch (SQLException ex) {
-            }
-        }
-    }
-
-    public void removeFromWhitelist(String name) {
-        Connection conn = null;
-        PreparedStatement ps = null;
-        try {
-            conn = getConnection();
-            ps = conn.prepareStatement("DELETE FROM whitelist WHERE name = ?");
-            ps.setString(1, name);
-            ps.executeUpdate();
-            synchronized (whiteListLock) {
-                whiteList.add(name);
-            }
-        } catch (SQLException ex) {
-            log.log(Level.SEVERE, "Unable to update whitelist", ex);
-        } finally {
-            try {
-                if (ps != null) {
-                    ps.close();
-                }
-                if (conn != null) {
-                    conn.close();
-                }
-            } catch (SQLException ex) {
-            }
-        }
-    }
-
-    //Reservelist
-    public void addToReserveList(String name) {
-        Connection conn = null;
-        PreparedStatement ps = null;
-        try {
-            conn = getConnection();
-            ps = conn.prepareStatement("INSERT INTO reservelist VALUES(?)");
-            ps.setString(1, name);
-            ps.executeUpdate();
-            synchronized (reserveListLock) {
-                reserveList.add(name);
-            }
-        } catch (SQLException ex) {
-            log.log(Level.SEVERE, "Unable to update reservelist", ex);
-        } finally {
-            try {
-                if (ps != null) {
-                    ps.close();
-                }
-                if (conn != null) {
-                    conn.close();
-                }
-            } catch (SQLException ex) {
-            }
-        }
-    }
-
-    public void removeFromReserveList(String name) {
-        Connection conn = null;
-        PreparedStatement ps = null;
-        try {
-            conn = getConnection();
-            ps = conn.prepareStatement("DELETE FROM reservelist WHERE name = ?");
-            ps.setString(1, name);
-            ps.executeUpdate();
-            synchronized (reserveListLock) {
-                reserveList.add(name);
-            }
-        } catch (SQLException ex) {
-            log.log(Level.SEVERE, "Unable to update reservelist", ex);
-        } finally {
-            try {
-                if (ps != null) {
-                    ps.close();
-                }
-                if (conn != null) {
-                    conn.close();
-                }
-            } catch (SQLException ex) {
-            }
-        }
-    }
-}
+/* MySQL Data Source */
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * MySQLSource.java - Used for accessing users and such from a mysql database
+ * @author James
+ */
+public class MySQLSource extends DataSource {
+
+    private String driver, username, password, db;
+    private volatile ConnectionPool pool;
+    private volatile CoalescingWriter writeBehind = new CoalescingWriter("mysql-spool.txt");
+    private volatile long flushWindow = 1000, retryInterval = 30000;
+    private boolean flushScheduled = false;
+    private volatile boolean shuttingDown = false;
+    private final ScheduledExecutorService flushTimer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "MySQL flush timer");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private Connection getConnection() throws SQLException {
+        return pool.getConnection();
+    }
+
+    public void initialize() {
+        PropertiesFile properties = new PropertiesFile("mysql.properties");
+        driver = properties.getString("driver", "com.mysql.jdbc.Driver");
+        username = properties.getString("user", "root");
+        password = properties.getString("pass", "root");
+        db = properties.getString("db", "jdbc:mysql://localhost:3306/minecraft");
+
+        int poolSize = properties.getInt("pool-size", 5);
+        int validationTimeout = properties.getInt("pool-validation-timeout", 2);
+        long idleTimeout = properties.getLong("pool-idle-timeout", 300000);
+        long waitTimeout = properties.getLong("pool-wait-timeout", 5000);
+        int statementCacheSize = properties.getInt("statement-cache-size", 20);
+        flushWindow = properties.getLong("write-flush-window", 1000);
+        retryInterval = properties.getLong("write-retry-interval", 30000);
+        String spoolLoc = properties.getString("write-spool-location", "mysql-spool.txt");
+
+        try {
+            Class.forName(driver);
+        } catch (ClassNotFoundException ex) {
+            log.log(Level.SEVERE, "Unable to find class " + driver, ex);
+        }
+
+        ConnectionPool old = pool;
+        pool = new ConnectionPool(db + "?autoReconnect=true&user=" + username + "&password=" + password, poolSize, validationTimeout, idleTimeout, waitTimeout, statementCacheSize);
+        if (old != null) {
+            old.close();
+        }
+        if (!new File(spoolLoc).equals(writeBehind.getSpool())) {
+            flush();
+            writeBehind = new CoalescingWriter(spoolLoc);
+        }
+
+        super.initialize();
+    }
+
+    protected int getLoaderThreads() {
+        // Leave a connection for the writer thread
+        ConnectionPool current = pool;
+        return current == null ? 1 : current.getMaxSize() - 1;
+    }
+
+    public Future<?> flush() {
+        queueFlush();
+        return super.flush();
+    }
+
+    public void shutdown() {
+        // One last flush, if the database is down it all stays in the spool
+        // for next time instead of being retried
+        shuttingDown = true;
+        flushTimer.shutdownNow();
+        queueFlush();
+        super.shutdown();
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    /**
+     * Sends pending home and warp updates to the writer thread after the
+     * specified delay, unless that's already going to happen
+     * @param delay
+     */
+    private void scheduleFlush(long delay) {
+        synchronized (flushTimer) {
+            if (flushScheduled || shuttingDown) {
+                return;
+            }
+            flushScheduled = true;
+        }
+        try {
+            flushTimer.schedule(new Runnable() {
+
+                public void run() {
+                    queueFlush();
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ex) {
+            // Shutting down, which does its own flush
+            synchronized (flushTimer) {
+                flushScheduled = false;
+            }
+        }
+    }
+
+    private void queueFlush() {
+        synchronized (flushTimer) {
+            flushScheduled = false;
+        }
+        final CoalescingWriter writer = writeBehind;
+        queue(new Runnable() {
+
+            public void run() {
+                if (!writer.hasWork()) {
+                    return;
+                }
+                Connection conn = null;
+                try {
+                    try {
+                        conn = getConnection();
+                    } catch (SQLException ex) {
+                        // flush spools everything when it gets no connection
+                    }
+                    if (!writer.flush(conn) && !shuttingDown) {
+                        scheduleFlush(retryInterval);
+                    }
+                } finally {
+                    try {
+                        if (conn != null) {
+                            conn.close();
+                        }
+                    } catch (SQLException ex) {
+                    }
+                }
+            }
+        });
+    }
+
+    protected Map<String, Object> getVersions() {
+        Map<String, Object> versions = new HashMap<String, Object>();
+        Connection conn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            conn = getConnection();
+            try {
+                // MySQL 8 caches UPDATE_TIME for a day unless told otherwise,
+                // older servers don't have the variable
+                Statement st = conn.createStatement();
+                try {
+                    st.execute("SET SESSION information_schema_stats_expiry = 0");
+                } finally {
+                    st.close();
+                }
+            } catch (SQLException ex) {
+            }
+            StringBuilder sql = new StringBuilder("SELECT TABLE_NAME, UPDATE_TIME, UPDATE_TIME > NOW() - INTERVAL 2 SECOND AS recent FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME IN (");
+            for (int i = 0; i < TABLES.length; i++) {
+                sql.append(i > 0 ? ", ?" : "?");
+            }
+            sql.append(")");
+            ps = conn.prepareStatement(sql.toString());
+            for (int i = 0; i < TABLES.length; i++) {
+                ps.setString(i + 1, TABLES[i]);
+            }
+            rs = ps.executeQuery();
+            while (rs.next()) {
+                // Comes back null for InnoDB tables that haven't changed
+                // since the server started, and it only counts whole
+                // seconds, so a change right after a read could be missed.
+                // Either way the table is read every time until it settles.
+                Timestamp updated = rs.getTimestamp("UPDATE_TIME");
+                if (updated != null && !rs.getBoolean("recent")) {
+                    versions.put(rs.getString("TABLE_NAME").toLowerCase(), updated);
+                }
+            }
+        } catch (SQLException ex) {
+            log.log(Level.SEVERE, "Unable to read table update times", ex);
+        } finally {
+            try {
+                if (ps != null) {
+                    ps.close();
+                }
+                if (rs != null) {
+                    rs.close();
+                }
+                if (conn != null) {
+                    conn.close();
+                }
+            } catch (SQLException ex) {
+            }
+        }
+        return versions;
+    }
+
+    protected List<User> readUsers() {
+        List<User> users = new ArrayList<User>();
+        Connection conn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            conn = getConnection();
+            ps = conn.prepareStatement("SELECT * FROM users");
+            rs = ps.executeQuery();
+            while (rs.next()) {
+                User user = new User();
+                user.ID = rs.getInt("id");
+                user.Name = rs.getString("name");
+                user.Groups = rs.getString("groups").split(",");
+                user.Commands = rs.getString("commands").split(",");
+                user.Prefix = rs.getString("prefix");
+                user.Administrator = rs.getBoolean("admin");
+                user.CanModifyWorld = rs.getBoolean("canmodifyworld");
+                user.IgnoreRestrictions = rs.getBoolean("ignoresrestrictions");
+                user.IPs = rs.getString("ip").split(",");
+                users.add(user);
+            }
+        } catch (SQLException ex) {
+            log.log(Level.SEVERE, "Unable to retreive users from user table", ex);
+        } finally {
+            try {
+                if (ps != null) {
+                    ps.close();
+                }
+                if (rs != null) {
+                    rs.close();
+                }
+                if (conn != null) {
+                    conn.close();
+                }
+            } catch (SQLException ex) {
+            }
+        }
+        return users;
+    }
+
+    protected List<Group> readGroups() {
+        List<Group> groups = new ArrayList<Group>();
+        Connection conn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            conn = getConnection();
+            ps = conn.prepareStatement("SELECT * FROM groups");
+            rs = ps.executeQuery();
+            while (rs.next()) {
+                Group group = new Group();
+                group.Administrator = rs.getBoolean("admin");
+                group.CanModifyWorld = rs.getBoolean("canmodifyworld");
+                group.Commands = rs.getString("commands").split(",");
+                group.DefaultGroup = rs.getBoolean("defaultgroup");
+                group.ID = rs.getInt("id");
+                group.IgnoreRestrictions = rs.getBoolean("ignoresrestrictions");
+                group.InheritedGroups = rs.getString("inheritedgroups").split(",");
+                group.Name = rs.getString("name");
+                group.Prefix = rs.getString("prefix");
+                groups.add(group);
+            }
+        } catch (SQLException ex) {
+            log.log(Level.SEVERE, "Unable to retreive groups from group table", ex);
+        } finally {
+            try {
+                if (ps != null) {
+                    ps.close();
+                }
+                if (rs != null) {
+                    rs.close();
+                }
+                if (conn != null) {
+                    conn.close();
+                }
+            } catch (SQLException ex) {
+            }
+        }
+        return groups;
+    }
+
+    protected List<Kit> readKits() {
+        List<Kit> kits = new ArrayList<Kit>();
+        Connection conn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            conn = getConnection();
+            ps = conn.prepareStatement("SELECT * FROM kits");
+            rs = ps.executeQuery();
+            while (rs.next()) {
+                Kit kit = new Kit();
+                kit.Delay = rs.getInt("delay");
+                kit.Group = rs.getString("group");
+                kit.ID = rs.getInt("id");
+                kit.Name = rs.getString("name");
+                kit.IDs = new HashMap<String, Integer>();
+
+                String[] ids = rs.getString("items").split(",");
+                for (String str : ids) {
+                    String id = "";
+                    int amount = 1;
+                    if (str.contains(" ")) {
+                        id = str.split(" ")[0];
+                        amount = Integer.parseInt(str.split(" ")[1]);
+                    } else {
+                        id = str;
+                    }
+                    kit.IDs.put(id, amount);
+                }
+                kits.add(kit);
+            }
+        } catch (SQLException ex) {
+            log.log(Level.SEVERE, "Unable to retreive kits from kit table", ex);
+        } finally {
+            try {
+                if (ps != null) {
+                    ps.close();
+                }
+                if (rs != null) {
+                    rs.close();
+                }
+                if (conn != null) {
+                    conn.close();
+                }
+            } catch (SQLException ex) {
+            }
+        }
+        return kits;
+    }
+
+    protected List<Warp> readHomes() {
+        List<Warp> homes = new ArrayList<Warp>();
+        if (!etc.getInstance().saveHomes) {
+            return homes;
+        }
+        Connection conn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            conn = getConnection();
+            ps = conn.prepareStatement("SELECT * FROM homes");
+            rs = ps.executeQuery();
+            while (rs.next()) {
+                homes.add(readHome(rs));
+            }
+        } catch (SQLException ex) {
+            log.log(Level.SEVERE, "Unable to retreive homes from home table", ex);
+        } finally {
+            try {
+                if (ps != null) {
+                    ps.close();
+                }
+                if (rs != null) {
+                    rs.close();
+                }
+                if (conn != null) {
+                    conn.close();
+                }
+            } catch (SQLException ex) {
+            }
+        }
+        return homes;
+    }
+
+    protected Warp readHome(String name) {
+        if (!etc.getInstance().saveHomes) {
+            return null;
+        }
+        Warp home = null;
+        Connection conn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            conn = getConnection();
+            ps = conn.prepareStatement("SELECT * FROM homes WHERE name = ?");
+            ps.setString(1, name);
+            rs = ps.executeQuery();
+            if (rs.next()) {
+                home = readHome(rs);
+            }
+        } catch (SQLException ex) {
+            log.log(Level.SEVERE, "Unable to retreive home of " + name + " from home table", ex);
+        } finally {
+            try {
+                if (ps != null) {
+                    ps.close();
+                }
+                if (rs != null) {
+                    rs.close();
+                }
+                if (conn != null) {
+                    conn.close();
+                }
+            } catch (SQLException ex) {
+            }
+        }
+        return home;
+    }
+
+    private static Warp readHome(ResultSet rs) throws SQLException {
+        Location location = new Location();
+        location.x = rs.getDouble("x");
+        location.y = rs.getDouble("y");
+        location.z = rs.getDouble("z");
+        location.rotX = rs.getFloat("rotX");
+        location.rotY = rs.getFloat("rotY");
+        Warp home = new Warp();
+        home.ID = rs.getInt("id");
+        home.Location = location;
+        home.Name = rs.getString("name");
+        home.Group = rs.getString("group");
+        return home;
+    }
+
+    protected List<Warp> readWarps() {
+        List<Warp> warps = new ArrayList<Warp>();
+        Connection conn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            conn = getConnection();
+            ps = conn.prepareStatement("SELECT * FROM warps");
+            rs = ps.executeQuery();
+            while (rs.next()) {
+                Location location = new Location();
+                location.x = rs.getDouble("x");
+                location.y = rs.getDouble("y");
+                location.z = rs.getDouble("z");
+                location.rotX = rs.getFloat("rotX");
+                location.rotY = rs.getFloat("rotY");
+                Warp warp = new Warp();
+                warp.ID = rs.getInt("id");
+                warp.Location = location;
+                warp.Name = rs.getString("name");
+                warp.Group = rs.getString("group");
+                warps.add(warp);
+            }
+        } catch (SQLException ex) {
+            log.log(Level.SEVERE, "Unable to retreive warps from warp table", ex);
+        } finally {
+            try {
+                if (ps != null) {
+                    ps.close();
+                }
+                if (rs != null) {
+                    rs.close();
+                }
+                if (conn != null) {
+                    conn.close();
+                }
+            } catch (SQLException ex) {
+            }
+        }
+        return warps;
+    }
+
+    protected Map<String, Integer> readItems() {
+        Map<String, Integer> items = new HashMap<String, Integer>();
+        Connection conn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            conn = getConnection();
+            ps = conn.prepareStatement("SELECT * FROM items");
+            rs = ps.executeQuery();
+            while (rs.next()) {
+                items.put(rs.getString("name"), rs.getInt("itemid"));
+            }
+        } catch (SQLException ex) {
+            log.log(Level.SEVERE, "Unable to retreive items from item table", ex);
+        } finally {
+            try {
+                if (ps != null) {
+                    ps.close();
+                }
+                if (rs != null) {
+                    rs.close();
+                }
+                if (conn != null) {
+                    conn.close();
+                }
+            } catch (SQLException ex) {
+            }
+        }
+        return items;
+    }
+
+    protected List<String> readWhitelist() {
+        List<String> whiteList = new ArrayList<String>();
+        Connection conn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            conn = getConnection();
+            ps = conn.prepareStatement("SELECT * FROM whitelist");
+            rs = ps.executeQuery();
+            while (rs.next()) {
+                whiteList.add(rs.getString(1));
+            }
+        } catch (SQLException ex) {
+            log.log(Level.SEVERE, "Unable to retreive users from whitelist table", ex);
+        } finally {
+            try {
+                if (ps != null) {
+                    ps.close();
+                }
+                if (rs != null) {
+                    rs.close();
+                }
+                if (conn != null) {
+                    conn.close();
+                }
+            } catch (SQLException ex) {
+            }
+        }
+        return whiteList;
+    }
+
+    protected List<String> readReserveList() {
+        List<String> reserveList = new ArrayList<String>();
+        Connection conn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            conn = getConnection();
+            ps = conn.prepareStatement("SELECT * FROM reservelist");
+            rs = ps.executeQuery();
+            while (rs.next()) {
+                reserveList.add(rs.getString(1));
+            }
+        } catch (SQLException ex) {
+            log.log(Level.SEVERE, "Unable to retreive users from whitelist table", ex);
+        } finally {
+            try {
+                if (ps != null) {
+                    ps.close();
+                }
+                if (rs != null) {
+                    rs.close();
+                }
+                if (conn != null) {
+                    conn.close();
+                }
+            } catch (SQLException ex) {
+            }
+        }
+        return reserveList;
+    }
+
+    protected List<Ban> readBans() {
+        List<Ban> bans = new ArrayList<Ban>();
+        Connection conn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            conn = getConnection();
+            ps = conn.prepareStatement("SELECT name, ip, reason, expires FROM bans");
+            rs = ps.executeQuery();
+            while (rs.next()) {
+                Ban ban = new Ban();
+                ban.Name = rs.getString("name");
+                ban.Ip = rs.getString("ip");
+                ban.Reason = rs.getString("reason");
+                ban.Timestamp = rs.getLong("expires");
+                bans.add(ban);
+            }
+        } catch (SQLException ex) {
+            log.log(Level.SEVERE, "Unable to retreive bans from bans table", ex);
+        } finally {
+            try {
+                if (ps != null) {
+                    ps.close();
+                }
+                if (rs != null) {
+                    rs.close();
+                }
+                if (conn != null) {
+                    conn.close();
+                }
+            } catch (SQLException ex) {
+            }
+        }
+        return bans;
+    }
+
+    //Users
+    public void addUser(final User user) {
+        putUser(user);
+        queue(new Runnable() {
+
+            public void run() {
+                Connection conn = null;
+                PreparedStatement ps = null;
+                ResultSet rs = null;
+                try {
+                    conn = getConnection();
+                    ps = conn.prepareStatement("INSERT INTO users (name, groups, prefix, commands, admin, canmodifyworld, ignoresrestrictions) VALUES (?,?,?,?,?,?,?)", Statement.RETURN_GENERATED_KEYS);
+                    ps.setString(1, user.Name);
+                    ps.setString(2, id.combineSplit(0, user.Groups, ","));
+                    ps.setString(3, user.Prefix);
+                    ps.setString(4, id.combineSplit(0, user.Commands, ","));
+                    ps.setBoolean(5, user.Administrator);
+                    ps.setBoolean(6, user.CanModifyWorld);
+                    ps.setBoolean(7, user.IgnoreRestrictions);
+                    ps.executeUpdate();
+
+                    rs = ps.getGeneratedKeys();
+                    if (rs.next()) {
+                        user.ID = rs.getInt(1);
+                    }
+                } catch (SQLException ex) {
+                    log.log(Level.SEVERE, "Unable to insert user into users table", ex);
+                } finally {
+                    try {
+                        if (ps != null) {
+                            ps.close();
+                        }
+                        if (rs != null) {
+                            rs.close();
+                        }
+                        if (conn != null) {
+                            conn.close();
+                        }
+                    } catch (SQLException ex) {
+                    }
+                }
+            }
+        });
+    }
+
+    public void modifyUser(final User user) {
+        putUser(user);
+        queue(new Runnable() {
+
+            public void run() {
+                Connection conn = null;
+                PreparedStatement ps = null;
+                try {
+                    conn = getConnection();
+                    ps = conn.prepareStatement("UPDATE users SET groups = ?, prefix = ?, commands = ?, admin = ?, canmodifyworld = ?, ignoresrestrictions = ? WHERE id = ?");
+                    ps.setString(1, id.combineSplit(0, user.Groups, ","));
+                    ps.setString(2, user.Prefix);
+                    ps.setString(3, id.combineSplit(0, user.Commands, ","));
+                    ps.setBoolean(4, user.Administrator);
+                    ps.setBoolean(5, user.CanModifyWorld);
+                    ps.setBoolean(6, user.IgnoreRestrictions);
+                    ps.setInt(7, user.ID);
+                    ps.executeUpdate();
+                } catch (SQLException ex) {
+                    log.log(Level.SEVERE, "Unable to update user in users table", ex);
+                } finally {
+                    try {
+                        if (ps != null) {
+                            ps.close();
+                        }
+                        if (conn != null) {
+                            conn.close();
+                        }
+                    } catch (SQLException ex) {
+                    }
+                }
+            }
+        });
+    }
+
+    //Groups
+    public void addGroup(Group group) {
+        throw new UnsupportedOperationException("Not supported yet.");
+    }
+
+    public void modifyGroup(Group group) {
+        throw new UnsupportedOperationException("Not supported yet.");
+    }
+
+    //Kits
+    public void addKit(Kit kit) {
+        throw new UnsupportedOperationException("Not supported yet.");
+    }
+
+    public void modifyKit(Kit kit) {
+        throw new UnsupportedOperationException("Not supported yet.");
+    }
+
+    //Homes
+    public void addHome(Warp home) {
+        // Goes in as an update the table doesn't have yet, which also
+        // replaces any removal of the same name still waiting
+        putHome(home);
+        writeBehind.put("homes", home);
+        scheduleFlush(flushWindow);
+    }
+
+    public void changeHome(Warp home) {
+        putHome(home);
+        writeBehind.put("homes", home);
+        scheduleFlush(flushWindow);
+    }
+
+    //Warps
+    public void addWarp(Warp warp) {
+        putWarp(warp);
+        writeBehind.put("warps", warp);
+        scheduleFlush(flushWindow);
+    }
+
+    public void changeWarp(Warp warp) {
+        putWarp(warp);
+        writeBehind.put("warps", warp);
+        scheduleFlush(flushWindow);
+    }
+
+    public void removeWarp(Warp warp) {
+        // By name, a warp added since the last reload doesn't know its ID
+        // until its insert has been flushed
+        dropWarp(warp);
+        writeBehind.remove("warps", warp.Name);
+        scheduleFlush(flushWindow);
+    }
+
+    //Whitelist
+    public void addToWhitelist(final String name) {
+        putWhitelisted(name, true);
+        queue(new Runnable() {
+
+            public void run() {
+                Connection conn = null;
+                PreparedStatement ps = null;
+                try {
+                    conn = getConnection();
+                    ps = conn.prepareStatement("INSERT INTO whitelist VALUES(?)");
+                    ps.setString(1, name);
+                    ps.executeUpdate();
+                } catch (SQLException ex) {
+                    log.log(Level.SEVERE, "Unable to update whitelist", ex);
+                } finally {
+                    try {
+                        if (ps != null) {
+                            ps.close();
+                        }
+                        if (conn != null) {
+                            conn.close();
+                        }
+                    } catch (SQLException ex) {
+                    }
+                }
+            }
+        });
+    }
+
+    public void removeFromWhitelist(final String name) {
+        putWhitelisted(name, false);
+        queue(new Runnable() {
+
+            public void run() {
+                Connection conn = null;
+                PreparedStatement ps = null;
+                try {
+                    conn = getConnection();
+                    ps = conn.prepareStatement("DELETE FROM whitelist WHERE name = ?");
+                    ps.setString(1, name);
+                    ps.executeUpdate();
+                } catch (SQLException ex) {
+                    log.log(Level.SEVERE, "Unable to update whitelist", ex);
+                } finally {
+                    try {
+                        if (ps != null) {
+                            ps.close();
+                        }
+                        if (conn != null) {
+                            conn.close();
+                        }
+                    } catch (SQLException ex) {
+                    }
+                }
+            }
+        });
+    }
+
+    //Bans
+    public void addBan(final Ban ban) {
+        queue(new Runnable() {
+
+            public void run() {
+                Connection conn = null;
+                PreparedStatement ps = null;
+                try {
+                    conn = getConnection();
+                    // Replaces any earlier ban on the same name or IP
+                    ps = conn.prepareStatement("DELETE FROM bans WHERE name = ? AND ip = ?");
+                    ps.setString(1, ban.Name);
+                    ps.setString(2, ban.Ip);
+                    ps.executeUpdate();
+                    ps.close();
+                    ps = conn.prepareStatement("INSERT INTO bans (name, ip, reason, expires) VALUES(?, ?, ?, ?)");
+                    ps.setString(1, ban.Name);
+                    ps.setString(2, ban.Ip);
+                    ps.setString(3, ban.Reason);
+                    ps.setLong(4, ban.Timestamp);
+                    ps.executeUpdate();
+                } catch (SQLException ex) {
+                    log.log(Level.SEVERE, "Unable to insert ban into bans table", ex);
+                } finally {
+                    try {
+                        if (ps != null) {
+                            ps.close();
+                        }
+                        if (conn != null) {
+                            conn.close();
+                        }
+                    } catch (SQLException ex) {
+                    }
+                }
+            }
+        });
+    }
+
+    public void removeBan(final Ban ban) {
+        queue(new Runnable() {
+
+            public void run() {
+                Connection conn = null;
+                PreparedStatement ps = null;
+                try {
+                    conn = getConnection();
+                    ps = conn.prepareStatement("DELETE FROM bans WHERE name = ? AND ip = ?");
+                    ps.setString(1, ban.Name);
+                    ps.setString(2, ban.Ip);
+                    ps.executeUpdate();
+                } catch (SQLException ex) {
+                    log.log(Level.SEVERE, "Unable to delete ban from bans table", ex);
+                } finally {
+                    try {
+                        if (ps != null) {
+                            ps.close();
+                        }
+                        if (conn != null) {
+                            conn.close();
+                        }
+                    } catch (SQLException ex) {
+                    }
+                }
+            }
+        });
+    }
+
+    //Reservelist
+    public void addToReserveList(final String name) {
+        putReserved(name, true);
+        queue(new Runnable() {
+
+            public void run() {
+                Connection conn = null;
+                PreparedStatement ps = null;
+                try {
+                    conn = getConnection();
+                    ps = conn.prepareStatement("INSERT INTO reservelist VALUES(?)");
+                    ps.setString(1, name);
+                    ps.executeUpdate();
+                } catch (SQLException ex) {
+                    log.log(Level.SEVERE, "Unable to update reservelist", ex);
+                } finally {
+                    try {
+                        if (ps != null) {
+                            ps.close();
+                        }
+                        if (conn != null) {
+                            conn.close();
+                        }
+                    } catch (SQLException ex) {
+                    }
+                }
+            }
+        });
+    }
+
+    public void removeFromReserveList(final String name) {
+        putReserved(name, false);
+        queue(new Runnable() {
+
+            public void run() {
+                Connection conn = null;
+                PreparedStatement ps = null;
+                try {
+                    conn = getConnection();
+                    ps = conn.prepareStatement("DELETE FROM reservelist WHERE name = ?");
+                    ps.setString(1, name);
+                    ps.executeUpdate();
+                } catch (SQLException ex) {
+                    log.log(Level.SEVERE, "Unable to update reservelist", ex);
+                } finally {
+                    try {
+                        if (ps != null) {
+                            ps.close();
+                        }
+                        if (conn != null) {
+                            conn.close();
+                        }
+                    } catch (SQLException ex) {
+                    }
+                }
+            }
+        });
+    }
+}
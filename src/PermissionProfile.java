@@ -0,0 +1,141 @@
+/* Flattened permissions for a single user */
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * PermissionProfile.java - A user's permissions with group inheritance already
+ * resolved. Profiles are built on first use and cached in the current
+ * DataSnapshot, so they go away by themselves whenever users or groups change.
+ */
+public final class PermissionProfile {
+
+    private final Set<String> commands;
+    private final boolean allCommands;
+    private final Set<String> groups;
+    private final boolean admin;
+    private final boolean ignoreRestrictions;
+    private final boolean canBuild;
+
+    private PermissionProfile(Set<String> commands, boolean allCommands, Set<String> groups, boolean admin, boolean ignoreRestrictions, boolean canBuild) {
+        this.commands = commands;
+        this.allCommands = allCommands;
+        this.groups = groups;
+        this.admin = admin;
+        this.ignoreRestrictions = ignoreRestrictions;
+        this.canBuild = canBuild;
+    }
+
+    /**
+     * Returns true if this profile can use the specified command
+     * @param command
+     * @return
+     */
+    public boolean canUseCommand(String command) {
+        return allCommands || commands.contains(command.toLowerCase());
+    }
+
+    /**
+     * Returns true if this profile is in the specified group, either directly
+     * or through inheritance. Everyone is in the default group.
+     * @param group
+     * @return
+     */
+    public boolean isInGroup(String group) {
+        return groups.contains(group.toLowerCase());
+    }
+
+    /**
+     * Returns true if this profile has administrator privileges
+     * @return
+     */
+    public boolean isAdmin() {
+        return admin;
+    }
+
+    /**
+     * Returns true if this profile can ignore restrictions
+     * @return
+     */
+    public boolean canIgnoreRestrictions() {
+        return ignoreRestrictions;
+    }
+
+    /**
+     * Returns false if this profile can not modify the world
+     * @return
+     */
+    public boolean canBuild() {
+        return canBuild;
+    }
+
+    /**
+     * Builds the profile for the specified user. Pass null for players that
+     * aren't in the user list; they only get what the default group has.
+     * @param user
+     * @param data
+     * @return profile
+     */
+    static PermissionProfile build(User user, DataSnapshot data) {
+        Set<String> commands = new HashSet<String>();
+        Set<String> groups = new HashSet<String>();
+        boolean[] all = new boolean[1];
+
+        Group def = data.defaultGroup;
+        if (def != null) {
+            groups.add(def.Name.toLowerCase());
+            collect(def, data, commands, all, new HashSet<String>());
+        }
+
+        if (user == null) {
+            return new PermissionProfile(commands, all[0], Collections.unmodifiableSet(groups), false, false, def == null || def.CanModifyWorld);
+        }
+
+        for (String str : user.Commands) {
+            commands.add(str.toLowerCase());
+        }
+
+        // Admin, unrestricted and build rights only come from the user's own
+        // groups, commands and membership come from the whole tree.
+        boolean admin = user.Administrator;
+        boolean ignoreRestrictions = user.Administrator || user.IgnoreRestrictions;
+        boolean canBuild = user.CanModifyWorld;
+        Set<String> visited = new HashSet<String>();
+        for (String str : user.Groups) {
+            Group group = data.groupIndex.get(str.toLowerCase());
+            if (group == null) {
+                continue;
+            }
+            admin |= group.Administrator;
+            ignoreRestrictions |= group.Administrator || group.IgnoreRestrictions;
+            canBuild &= group.CanModifyWorld;
+            collect(group, data, commands, all, visited);
+        }
+        groups.addAll(visited);
+
+        return new PermissionProfile(commands, all[0], Collections.unmodifiableSet(groups), admin, ignoreRestrictions, canBuild);
+    }
+
+    private static void collect(Group group, DataSnapshot data, Set<String> commands, boolean[] all, Set<String> visited) {
+        if (!visited.add(group.Name.toLowerCase())) {
+            return;
+        }
+
+        for (String str : group.Commands) {
+            if (str.equals("*")) {
+                all[0] = true;
+            }
+            commands.add(str.toLowerCase());
+        }
+
+        if (group.InheritedGroups != null) {
+            for (String str : group.InheritedGroups) {
+                Group inherited = data.groupIndex.get(str.toLowerCase());
+                if (inherited != null) {
+                    collect(inherited, data, commands, all, visited);
+                }
+            }
+        }
+    }
+}
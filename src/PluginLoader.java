@@ -1,274 +1,690 @@
-
-import java.io.File;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.net.MalformedURLException;
-import java.net.URL;
-import java.net.URLClassLoader;
-import java.util.ArrayList;
-import java.util.EnumMap;
-import java.util.HashMap;
-import java.util.List;
-import java.util.logging.Level;
-import java.util.logging.Logger;
-import net.minecraft.server.MinecraftServer;
-
-/**
- * PluginLoader.java - Used to load plugins, toggle them, etc.
- * @author James
- */
-public class PluginLoader {
-
-    public enum Hook {
-        LOGINCHECK,
-        LOGIN,
-        CHAT,
-        COMMAND,
-        BAN,
-        IPBAN,
-        KICK,
-        BLOCK_CREATED,
-        BLOCK_DESTROYED,
-        DISCONNECT,
-    }
-    private static final Logger log = Logger.getLogger("Minecraft");
-    private static final Object lock = new Object();
-    private List<Plugin> plugins = new ArrayList<Plugin>();
-    private Server server;
-    private PropertiesFile properties;
-
-    /**
-     * Creates a plugin loader
-     * @param server
-     */
-    public PluginLoader(MinecraftServer server) {
-        properties = new PropertiesFile("server.properties");
-        this.server = new Server(server);
-    }
-
-    /**
-     * Loads all plugins.
-     */
-    public void load() {
-        String[] classes = properties.getString("plugins", "").split(",");
-        for (String sclass : classes) {
-            if (sclass.equals(""))
-                continue;
-            loadPlugin(sclass);
-        }
-    }
-
-    private void loadPlugin(String fileName) {
-        if (getPlugin(fileName) != null)
-            return; //Already exists.
-
-        try {
-            File file = new File("plugins/" + fileName + ".jar");
-            URLClassLoader child = null;
-            try {
-                child = new MyClassLoader(new URL[]{file.toURL()}, this.getClass().getClassLoader());
-            } catch (MalformedURLException ex) {
-                log.log(Level.SEVERE, "Exception while loading class", ex);
-            }
-            Class c = Class.forName(fileName, true, child);
-
-            try {
-                Plugin plugin = (Plugin) c.newInstance();
-                plugin.setName(fileName);
-                plugin.enable();
-                synchronized (lock) {
-                    plugins.add(plugin);
-                }
-            } catch (InstantiationException ex) {
-                log.log(Level.SEVERE, "Exception while loading plugin", ex);
-            } catch (IllegalAccessException ex) {
-                log.log(Level.SEVERE, "Exception while loading plugin", ex);
-            }
-        } catch (ClassNotFoundException ex) {
-            log.log(Level.SEVERE, "Exception while loading plugin", ex);
-        }
-    }
-
-    /**
-     * Reloads the specified plugin
-     */
-    public void reload(String fileName) {
-        /* Not sure exactly how much of this is necessary */
-        Plugin toNull = getPlugin(fileName);
-        if (toNull.isEnabled())
-            toNull.disable();
-        plugins.remove(toNull);
-        toNull = null;
-
-        try {
-            File file = new File("plugins/" + fileName + ".jar");
-            URLClassLoader child = null;
-            try {
-                child = new MyClassLoader(new URL[]{file.toURL()}, this.getClass().getClassLoader());
-            } catch (MalformedURLException ex) {
-                log.log(Level.SEVERE, "Exception while loading class", ex);
-            }
-            Class c = Class.forName(fileName, true, child);
-
-            try {
-                Plugin plugin = (Plugin) c.newInstance();
-                plugin.setName(fileName);
-                plugin.enable();
-                synchronized (lock) {
-                    plugins.add(plugin);
-                }
-            } catch (InstantiationException ex) {
-                log.log(Level.SEVERE, "Exception while reloading plugin", ex);
-            } catch (IllegalAccessException ex) {
-                log.log(Level.SEVERE, "Exception while reloading plugin", ex);
-            }
-        } catch (ClassNotFoundException ex) {
-            log.log(Level.SEVERE, "Exception while reloading plugin", ex);
-        }
-    }
-
-    /**
-     * Returns the specified plugin
-     * @param name
-     * @return
-     */
-    public Plugin getPlugin(String name) {
-        synchronized (lock) {
-            for (Plugin plugin : plugins) {
-                if (plugin.getName().equalsIgnoreCase(name)) {
-                    return plugin;
-                }
-            }
-        }
-        return null;
-    }
-
-    /**
-     * Returns a string list of plugins
-     * @return
-     */
-    public String getPluginList() {
-        StringBuilder sb = new StringBuilder();
-        synchronized (lock) {
-            for (Plugin plugin : plugins) {
-                sb.append(plugin.getName());
-                sb.append(" ");
-                sb.append(plugin.isEnabled() ? "(E)" : "(D)");
-                sb.append(",");
-            }
-        }
-        String str = sb.toString();
-        if (str.length() > 1)
-            return str.substring(0, str.length() - 1);
-        else
-            return "Empty";
-    }
-
-    /**
-     * Enables the specified plugin (Or adds and enables it)
-     * @param name
-     * @return
-     */
-    public boolean enablePlugin(String name) {
-        Plugin plugin = getPlugin(name);
-        if (plugin != null) {
-            if (!plugin.isEnabled()) {
-                plugin.toggleEnabled();
-                plugin.enable();
-            }
-        } else { //New plugin, perhaps?
-            File file = new File("plugins/" + name + ".jar");
-            if (file.exists())
-                loadPlugin(name);
-            else
-                return false;
-        }
-        return true;
-    }
-
-    /**
-     * Disables specified plugin
-     * @param name
-     */
-    public void disablePlugin(String name) {
-        Plugin plugin = getPlugin(name);
-        if (plugin != null) {
-            if (plugin.isEnabled()) {
-                plugin.toggleEnabled();
-                plugin.disable();
-            }
-        }
-    }
-
-    /**
-     * Returns the server
-     * @return
-     */
-    public Server getServer() {
-        return server;
-    }
-
-    /**
-     * Calls a plugin hook.
-     * @param h
-     * @param parameters
-     * @return
-     */
-    public Object callHook(Hook h, Object[] parameters) {
-        Object toRet = false;
-        synchronized (lock) {
-            try {
-                for (Plugin plugin : plugins) {
-                    if (!plugin.isEnabled())
-                        continue;
-                    
-                    try {
-                        switch (h) {
-                            case LOGINCHECK:
-                                String result = (String)plugin.onLoginChecks((String) parameters[0]);
-                                if (result != null)
-                                    toRet = result;
-                                break;
-                            case LOGIN:
-                                plugin.onLogin(new Player((ea) parameters[0]));
-                                break;
-                            case DISCONNECT:
-                                plugin.onDisconnect(new Player((ea) parameters[0]));
-                                break;
-                            case CHAT:
-                                if (plugin.onChat(new Player((ea) parameters[0]), (String)parameters[1]))
-                                    toRet = true;
-                                break;
-                            case COMMAND:
-                                if (plugin.onCommand(new Player((ea) parameters[0]), (String[])parameters[1]))
-                                    toRet = true;
-                                break;
-                            case BAN:
-                                plugin.onBan(new Player((ea) parameters[0]), (String)parameters[1]);
-                                break;
-                            case IPBAN:
-                                plugin.onIpBan(new Player((ea) parameters[0]), (String)parameters[1]);
-                                break;
-                            case KICK:
-                                plugin.onKick(new Player((ea) parameters[0]), (String)parameters[1]);
-                                break;
-                            case BLOCK_CREATED:
-                                if (plugin.onBlockCreate(new Player((ea) parameters[0]), (Block)parameters[1], (Block)parameters[2], (Integer)parameters[3]))
-                                    toRet = true;
-                                break;
-                            case BLOCK_DESTROYED:
-                                if (plugin.onBlockDestroy(new Player((ea) parameters[0]), (Block)parameters[1]))
-                                    toRet = true;
-                                break;
-                        }
-                    } catch (UnsupportedOperationException ex) {
-                    }
-                }
-            } catch (Throwable ex) {
-                log.log(Level.SEVERE, "Exception while calling plugin function (Outdated plugin?)", ex);
-            }
-        }
-
-        return toRet;
-    }
-}
+
+import java.io.File;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import net.minecraft.server.MinecraftServer;
+
+/**
+ * PluginLoader.java - Used to load plugins, toggle them, etc.
+ * @author James
+ */
+public class PluginLoader {
+
+    /**
+     * Things plugins can listen for, with the Plugin method each one calls
+     */
+    public enum Hook {
+        LOGINCHECK("onLoginChecks", String.class),
+        LOGIN("onLogin", Player.class),
+        CHAT("onChat", Player.class, String.class),
+        COMMAND("onCommand", Player.class, String[].class),
+        BAN("onBan", Player.class, String.class),
+        IPBAN("onIpBan", Player.class, String.class),
+        KICK("onKick", Player.class, String.class),
+        BLOCK_CREATED("onBlockCreate", Player.class, Block.class, Block.class, int.class),
+        BLOCK_DESTROYED("onBlockDestroy", Player.class, Block.class),
+        DISCONNECT("onDisconnect", Player.class);
+        private final String method;
+        private final Class<?>[] parameters;
+
+        private Hook(String method, Class<?>... parameters) {
+            this.method = method;
+            this.parameters = parameters;
+        }
+    }
+    private static final Logger log = Logger.getLogger("Minecraft");
+    // Only taken by changes. Hooks read plugins and listeners without it,
+    // so both are replaced with new copies rather than changed.
+    private static final Object lock = new Object();
+    private volatile Plugin[] plugins = new Plugin[0];
+    // Enabled plugins that override the method for each hook, with their
+    // timings
+    private volatile EnumMap<Hook, HookStats[]> listeners = new EnumMap<Hook, HookStats[]>(Hook.class);
+    // Timings for every plugin and hook, kept while the plugin is loaded
+    private final Map<Plugin, HookStats[]> stats = new HashMap<Plugin, HookStats[]>();
+    // LOGIN, DISCONNECT, BAN, IPBAN and KICK can't be cancelled, so with
+    // async-plugin-hooks on they're handed to each plugin's HookQueue
+    // instead of holding up the network thread
+    private final boolean asyncHooks;
+    private final int hookQueueSize;
+    private final ExecutorService hookPool;
+    private final Map<Plugin, HookQueue> queues = new ConcurrentHashMap<Plugin, HookQueue>();
+    private Server server;
+    private PropertiesFile properties;
+
+    /**
+     * Creates a plugin loader
+     * @param server
+     */
+    public PluginLoader(MinecraftServer server) {
+        properties = new PropertiesFile("server.properties");
+        this.server = new Server(server);
+        asyncHooks = properties.getBoolean("async-plugin-hooks", false);
+        hookQueueSize = Math.max(1, properties.getInt("plugin-hook-queue-size", 1000));
+        if (asyncHooks) {
+            hookPool = Executors.newFixedThreadPool(Math.max(1, properties.getInt("plugin-hook-threads", 2)), new ThreadFactory() {
+
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "Plugin hooks");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        } else {
+            hookPool = null;
+        }
+        updateListeners();
+    }
+
+    /**
+     * Loads all plugins.
+     */
+    public void load() {
+        String[] classes = properties.getString("plugins", "").split(",");
+        for (String sclass : classes) {
+            if (sclass.equals(""))
+                continue;
+            loadPlugin(sclass);
+        }
+    }
+
+    private void loadPlugin(String fileName) {
+        if (getPlugin(fileName) != null)
+            return; //Already exists.
+
+        try {
+            File file = new File("plugins/" + fileName + ".jar");
+            URLClassLoader child = null;
+            try {
+                child = new MyClassLoader(new URL[]{file.toURL()}, this.getClass().getClassLoader());
+            } catch (MalformedURLException ex) {
+                log.log(Level.SEVERE, "Exception while loading class", ex);
+            }
+            Class c = Class.forName(fileName, true, child);
+
+            try {
+                Plugin plugin = (Plugin) c.newInstance();
+                plugin.setName(fileName);
+                plugin.enable();
+                add(plugin);
+            } catch (InstantiationException ex) {
+                log.log(Level.SEVERE, "Exception while loading plugin", ex);
+            } catch (IllegalAccessException ex) {
+                log.log(Level.SEVERE, "Exception while loading plugin", ex);
+            }
+        } catch (ClassNotFoundException ex) {
+            log.log(Level.SEVERE, "Exception while loading plugin", ex);
+        }
+    }
+
+    /**
+     * Reloads the specified plugin
+     */
+    public void reload(String fileName) {
+        /* Not sure exactly how much of this is necessary */
+        Plugin toNull = getPlugin(fileName);
+        if (toNull.isEnabled()) {
+            toNull.toggleEnabled();
+            toNull.disable();
+        }
+        remove(toNull);
+        toNull = null;
+
+        try {
+            File file = new File("plugins/" + fileName + ".jar");
+            URLClassLoader child = null;
+            try {
+                child = new MyClassLoader(new URL[]{file.toURL()}, this.getClass().getClassLoader());
+            } catch (MalformedURLException ex) {
+                log.log(Level.SEVERE, "Exception while loading class", ex);
+            }
+            Class c = Class.forName(fileName, true, child);
+
+            try {
+                Plugin plugin = (Plugin) c.newInstance();
+                plugin.setName(fileName);
+                plugin.enable();
+                add(plugin);
+            } catch (InstantiationException ex) {
+                log.log(Level.SEVERE, "Exception while reloading plugin", ex);
+            } catch (IllegalAccessException ex) {
+                log.log(Level.SEVERE, "Exception while reloading plugin", ex);
+            }
+        } catch (ClassNotFoundException ex) {
+            log.log(Level.SEVERE, "Exception while reloading plugin", ex);
+        }
+    }
+
+    /**
+     * Returns the specified plugin
+     * @param name
+     * @return
+     */
+    public Plugin getPlugin(String name) {
+        for (Plugin plugin : plugins) {
+            if (plugin.getName().equalsIgnoreCase(name)) {
+                return plugin;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns a string list of plugins
+     * @return
+     */
+    public String getPluginList() {
+        StringBuilder sb = new StringBuilder();
+        for (Plugin plugin : plugins) {
+            sb.append(plugin.getName());
+            sb.append(" ");
+            sb.append(plugin.isEnabled() ? "(E)" : "(D)");
+            sb.append(",");
+        }
+        String str = sb.toString();
+        if (str.length() > 1)
+            return str.substring(0, str.length() - 1);
+        else
+            return "Empty";
+    }
+
+    /**
+     * Enables the specified plugin (Or adds and enables it)
+     * @param name
+     * @return
+     */
+    public boolean enablePlugin(String name) {
+        Plugin plugin = getPlugin(name);
+        if (plugin != null) {
+            if (!plugin.isEnabled()) {
+                plugin.toggleEnabled();
+                plugin.enable();
+                synchronized (lock) {
+                    updateListeners();
+                }
+            }
+        } else { //New plugin, perhaps?
+            File file = new File("plugins/" + name + ".jar");
+            if (file.exists())
+                loadPlugin(name);
+            else
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Disables specified plugin
+     * @param name
+     */
+    public void disablePlugin(String name) {
+        Plugin plugin = getPlugin(name);
+        if (plugin != null) {
+            if (plugin.isEnabled()) {
+                plugin.toggleEnabled();
+                plugin.disable();
+                synchronized (lock) {
+                    updateListeners();
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the server
+     * @return
+     */
+    public Server getServer() {
+        return server;
+    }
+
+    /**
+     * Calls a plugin hook. The typed call methods below do the same without
+     * boxing anything.
+     * @param h
+     * @param parameters
+     * @return
+     */
+    public Object callHook(Hook h, Object[] parameters) {
+        switch (h) {
+            case LOGINCHECK:
+                String result = callLoginChecks((String) parameters[0]);
+                return result != null ? result : (Object) false;
+            case LOGIN:
+                callLogin((ea) parameters[0]);
+                break;
+            case DISCONNECT:
+                callDisconnect((ea) parameters[0]);
+                break;
+            case CHAT:
+                return callChat((ea) parameters[0], (String) parameters[1]);
+            case COMMAND:
+                return callCommand((ea) parameters[0], (String[]) parameters[1]);
+            case BAN:
+                callBan((ea) parameters[0], (String) parameters[1]);
+                break;
+            case IPBAN:
+                callIpBan((ea) parameters[0], (String) parameters[1]);
+                break;
+            case KICK:
+                callKick((ea) parameters[0], (String) parameters[1]);
+                break;
+            case BLOCK_CREATED:
+                return callBlockCreated((ea) parameters[0], (Block) parameters[1], (Block) parameters[2], (Integer) parameters[3]);
+            case BLOCK_DESTROYED:
+                return callBlockDestroyed((ea) parameters[0], (Block) parameters[1]);
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if any enabled plugin listens for the hook, so callers
+     * can skip building its parameters
+     * @param h
+     * @return
+     */
+    public boolean hasListeners(Hook h) {
+        return listeners.get(h).length > 0;
+    }
+
+    /**
+     * Calls LOGINCHECK
+     * @param user
+     * @return kick reason from the last plugin that gave one, or null
+     */
+    public String callLoginChecks(String user) {
+        String toRet = null;
+        for (HookStats listener : listeners.get(Hook.LOGINCHECK)) {
+            Plugin plugin = listener.getPlugin();
+            if (!plugin.isEnabled())
+                continue;
+            long start = System.nanoTime();
+            try {
+                String result = plugin.onLoginChecks(user);
+                if (result != null)
+                    toRet = result;
+            } catch (Throwable ex) {
+                failed(plugin, ex);
+            }
+            listener.record(System.nanoTime() - start);
+        }
+        return toRet;
+    }
+
+    /**
+     * Calls LOGIN
+     * @param user
+     */
+    public void callLogin(final ea user) {
+        for (HookStats listener : listeners.get(Hook.LOGIN)) {
+            final Plugin plugin = listener.getPlugin();
+            if (!plugin.isEnabled())
+                continue;
+            deliver(listener, new Runnable() {
+
+                public void run() {
+                    plugin.onLogin(user.a.getPlayer());
+                }
+            });
+        }
+    }
+
+    /**
+     * Calls DISCONNECT
+     * @param user
+     */
+    public void callDisconnect(final ea user) {
+        for (HookStats listener : listeners.get(Hook.DISCONNECT)) {
+            final Plugin plugin = listener.getPlugin();
+            if (!plugin.isEnabled())
+                continue;
+            deliver(listener, new Runnable() {
+
+                public void run() {
+                    plugin.onDisconnect(user.a.getPlayer());
+                }
+            });
+        }
+    }
+
+    /**
+     * Calls CHAT
+     * @param user
+     * @param message
+     * @return true if a plugin wants the message dropped
+     */
+    public boolean callChat(ea user, String message) {
+        boolean toRet = false;
+        for (HookStats listener : listeners.get(Hook.CHAT)) {
+            Plugin plugin = listener.getPlugin();
+            if (!plugin.isEnabled())
+                continue;
+            long start = System.nanoTime();
+            try {
+                if (plugin.onChat(user.a.getPlayer(), message))
+                    toRet = true;
+            } catch (Throwable ex) {
+                failed(plugin, ex);
+            }
+            listener.record(System.nanoTime() - start);
+        }
+        return toRet;
+    }
+
+    /**
+     * Calls COMMAND
+     * @param user
+     * @param split
+     * @return true if a plugin handled the command
+     */
+    public boolean callCommand(ea user, String[] split) {
+        boolean toRet = false;
+        for (HookStats listener : listeners.get(Hook.COMMAND)) {
+            Plugin plugin = listener.getPlugin();
+            if (!plugin.isEnabled())
+                continue;
+            long start = System.nanoTime();
+            try {
+                if (plugin.onCommand(user.a.getPlayer(), split))
+                    toRet = true;
+            } catch (Throwable ex) {
+                failed(plugin, ex);
+            }
+            listener.record(System.nanoTime() - start);
+        }
+        return toRet;
+    }
+
+    /**
+     * Calls BAN
+     * @param user
+     * @param reason
+     */
+    public void callBan(final ea user, final String reason) {
+        for (HookStats listener : listeners.get(Hook.BAN)) {
+            final Plugin plugin = listener.getPlugin();
+            if (!plugin.isEnabled())
+                continue;
+            deliver(listener, new Runnable() {
+
+                public void run() {
+                    plugin.onBan(user.a.getPlayer(), reason);
+                }
+            });
+        }
+    }
+
+    /**
+     * Calls IPBAN
+     * @param user
+     * @param reason
+     */
+    public void callIpBan(final ea user, final String reason) {
+        for (HookStats listener : listeners.get(Hook.IPBAN)) {
+            final Plugin plugin = listener.getPlugin();
+            if (!plugin.isEnabled())
+                continue;
+            deliver(listener, new Runnable() {
+
+                public void run() {
+                    plugin.onIpBan(user.a.getPlayer(), reason);
+                }
+            });
+        }
+    }
+
+    /**
+     * Calls KICK
+     * @param user
+     * @param reason
+     */
+    public void callKick(final ea user, final String reason) {
+        for (HookStats listener : listeners.get(Hook.KICK)) {
+            final Plugin plugin = listener.getPlugin();
+            if (!plugin.isEnabled())
+                continue;
+            deliver(listener, new Runnable() {
+
+                public void run() {
+                    plugin.onKick(user.a.getPlayer(), reason);
+                }
+            });
+        }
+    }
+
+    /**
+     * Calls BLOCK_CREATED
+     * @param user
+     * @param blockPlaced
+     * @param blockClicked
+     * @param itemInHand
+     * @return true if a plugin wants the action cancelled
+     */
+    public boolean callBlockCreated(ea user, Block blockPlaced, Block blockClicked, int itemInHand) {
+        boolean toRet = false;
+        for (HookStats listener : listeners.get(Hook.BLOCK_CREATED)) {
+            Plugin plugin = listener.getPlugin();
+            if (!plugin.isEnabled())
+                continue;
+            long start = System.nanoTime();
+            try {
+                if (plugin.onBlockCreate(user.a.getPlayer(), blockPlaced, blockClicked, itemInHand))
+                    toRet = true;
+            } catch (Throwable ex) {
+                failed(plugin, ex);
+            }
+            listener.record(System.nanoTime() - start);
+        }
+        return toRet;
+    }
+
+    /**
+     * Calls BLOCK_DESTROYED
+     * @param user
+     * @param block
+     * @return true if a plugin wants the action cancelled
+     */
+    public boolean callBlockDestroyed(ea user, Block block) {
+        boolean toRet = false;
+        for (HookStats listener : listeners.get(Hook.BLOCK_DESTROYED)) {
+            Plugin plugin = listener.getPlugin();
+            if (!plugin.isEnabled())
+                continue;
+            long start = System.nanoTime();
+            try {
+                if (plugin.onBlockDestroy(user.a.getPlayer(), block))
+                    toRet = true;
+            } catch (Throwable ex) {
+                failed(plugin, ex);
+            }
+            listener.record(System.nanoTime() - start);
+        }
+        return toRet;
+    }
+
+    /**
+     * Returns how far behind each plugin's async hooks are, one line per
+     * plugin. Empty unless async-plugin-hooks is on.
+     * @return
+     */
+    public List<String> getHookBacklog() {
+        List<String> lines = new ArrayList<String>();
+        for (Plugin plugin : plugins) {
+            HookQueue queue = queues.get(plugin);
+            if (queue != null) {
+                lines.add(queue.toString());
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Returns the timings for every plugin and hook that has been called,
+     * slowest in total first
+     * @return
+     */
+    public List<HookStats> getHookStats() {
+        List<HookStats> list = new ArrayList<HookStats>();
+        synchronized (lock) {
+            for (HookStats[] timings : stats.values()) {
+                for (HookStats timing : timings) {
+                    if (timing.getCount() > 0) {
+                        list.add(timing);
+                    }
+                }
+            }
+        }
+        Collections.sort(list, new Comparator<HookStats>() {
+
+            public int compare(HookStats a, HookStats b) {
+                return a.getTotal() > b.getTotal() ? -1 : (a.getTotal() == b.getTotal() ? 0 : 1);
+            }
+        });
+        return list;
+    }
+
+    /**
+     * Clears every plugin's timings
+     */
+    public void resetHookStats() {
+        synchronized (lock) {
+            for (HookStats[] timings : stats.values()) {
+                for (HookStats timing : timings) {
+                    timing.reset();
+                }
+            }
+        }
+    }
+
+    private HookQueue queue(Plugin plugin) {
+        HookQueue queue = queues.get(plugin);
+        if (queue == null) {
+            synchronized (queues) {
+                queue = queues.get(plugin);
+                if (queue == null) {
+                    queue = new HookQueue(plugin, hookPool, hookQueueSize);
+                    queues.put(plugin, queue);
+                }
+            }
+        }
+        return queue;
+    }
+
+    /**
+     * Calls a hook that can't be cancelled, on the plugin's HookQueue if
+     * async-plugin-hooks is on or straight away if not, and times it
+     * @param listener
+     * @param call
+     */
+    private void deliver(final HookStats listener, final Runnable call) {
+        Runnable timed = new Runnable() {
+
+            public void run() {
+                long start = System.nanoTime();
+                try {
+                    call.run();
+                } catch (Throwable ex) {
+                    failed(listener.getPlugin(), ex);
+                }
+                listener.record(System.nanoTime() - start);
+            }
+        };
+        if (asyncHooks) {
+            queue(listener.getPlugin()).add(timed);
+        } else {
+            timed.run();
+        }
+    }
+
+    private static void failed(Plugin plugin, Throwable ex) {
+        if (!(ex instanceof UnsupportedOperationException)) {
+            log.log(Level.SEVERE, "Exception while calling plugin function in " + plugin.getName() + " (Outdated plugin?)", ex);
+        }
+    }
+
+    private void add(Plugin plugin) {
+        synchronized (lock) {
+            Plugin[] updated = new Plugin[plugins.length + 1];
+            System.arraycopy(plugins, 0, updated, 0, plugins.length);
+            updated[plugins.length] = plugin;
+            plugins = updated;
+            updateListeners();
+        }
+    }
+
+    private void remove(Plugin plugin) {
+        synchronized (lock) {
+            List<Plugin> updated = new ArrayList<Plugin>(Arrays.asList(plugins));
+            updated.remove(plugin);
+            plugins = updated.toArray(new Plugin[updated.size()]);
+            stats.remove(plugin);
+            updateListeners();
+            // Hooks still queued for it are dropped, it's been disabled
+            HookQueue queue = queues.remove(plugin);
+            if (queue != null) {
+                queue.close();
+            }
+        }
+    }
+
+    /**
+     * Works out which plugins to call for each hook. Must hold lock.
+     */
+    private void updateListeners() {
+        EnumMap<Hook, HookStats[]> updated = new EnumMap<Hook, HookStats[]>(Hook.class);
+        for (Hook hook : Hook.values()) {
+            List<HookStats> list = new ArrayList<HookStats>();
+            for (Plugin plugin : plugins) {
+                if (plugin.isEnabled() && overrides(plugin, hook)) {
+                    list.add(getStats(plugin)[hook.ordinal()]);
+                }
+            }
+            updated.put(hook, list.toArray(new HookStats[list.size()]));
+        }
+        listeners = updated;
+    }
+
+    private HookStats[] getStats(Plugin plugin) {
+        HookStats[] timings = stats.get(plugin);
+        if (timings == null) {
+            timings = new HookStats[Hook.values().length];
+            for (Hook hook : Hook.values()) {
+                timings[hook.ordinal()] = new HookStats(plugin, hook);
+            }
+            stats.put(plugin, timings);
+        }
+        return timings;
+    }
+
+    /**
+     * Returns true if the plugin has its own version of the hook's method,
+     * rather than the one in Plugin that does nothing
+     * @param plugin
+     * @param hook
+     * @return
+     */
+    private static boolean overrides(Plugin plugin, Hook hook) {
+        try {
+            return plugin.getClass().getMethod(hook.method, hook.parameters).getDeclaringClass() != Plugin.class;
+        } catch (NoSuchMethodException ex) {
+            return false;
+        }
+    }
+}
@@ -16,6 +16,7 @@ public final class PropertiesFile {
     private static final Logger log = Logger.getLogger("Minecraft");
     private Properties properties;
     private String fileName;
+    private long lastModified, length;
 
     /**
      * Creates or opens a properties file using specified filename
@@ -38,18 +39,35 @@ public final class PropertiesFile {
      */
     public void load() {
         try {
+            stamp();
             properties.load(new FileInputStream(fileName));
         } catch (IOException ex) {
             log.log(Level.SEVERE, "Unable to load " + fileName, ex);
         }
     }
 
+    /**
+     * Returns true if the file changed since it was last loaded or saved
+     * @return
+     */
+    public boolean hasChanged() {
+        File file = new File(fileName);
+        return file.lastModified() != lastModified || file.length() != length;
+    }
+
+    private void stamp() {
+        File file = new File(fileName);
+        lastModified = file.lastModified();
+        length = file.length();
+    }
+
     /**
      * Saves the properties file
      */
     public void save() {
         try {
             properties.store(new FileOutputStream(fileName), "Minecraft Properties File");
+            stamp();
         } catch (IOException ex) {
             log.log(Level.SEVERE, "Unable to save " + fileName, ex);
         }
@@ -0,0 +1,358 @@
+/* Fixed-width records in a memory-mapped hash table */
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * RecordFile.java - A file of fixed-width records, each stored under a name.
+ * The file is itself an open addressing hash table on the lower-cased name,
+ * so finding, replacing or removing one record touches one slot (plus any
+ * collisions) and never reads the rest of the file. It's memory-mapped, so
+ * reading everything back is just a walk over the slots without any parsing.
+ *
+ * Layout: a header (magic, version, record size, capacity, used, deleted)
+ * followed by capacity slots of [state byte][name][record].
+ */
+public class RecordFile {
+
+    private static final Logger log = Logger.getLogger("Minecraft");
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final int MAGIC = 0x684d4442; // hMDB
+    private static final int VERSION = 1;
+    private static final int HEADER = 24;
+    private static final byte EMPTY = 0, USED = 1, DELETED = 2;
+    /**
+     * Bytes taken by the name in front of each record, read it back with
+     * getString(record, NAME_SIZE)
+     */
+    public static final int NAME_SIZE = 2 + 64;
+    private final File file;
+    private final int recordSize, slotSize;
+    private RandomAccessFile raf;
+    private MappedByteBuffer map;
+    private int capacity, used, deleted;
+
+    /**
+     * Opens the specified file, creating it if it doesn't exist
+     * @param file
+     * @param recordSize bytes available to each record
+     * @throws IOException
+     */
+    public RecordFile(File file, int recordSize) throws IOException {
+        this.file = file;
+        this.recordSize = recordSize;
+        this.slotSize = 1 + NAME_SIZE + recordSize;
+        if (!file.exists()) {
+            create(file, 64);
+        }
+        open();
+    }
+
+    /**
+     * Returns the record stored under the specified name, with the name in
+     * front of it
+     * @param name
+     * @return record, or null
+     */
+    public synchronized ByteBuffer get(String name) {
+        int slot = find(name);
+        return slot == -1 ? null : record(slot);
+    }
+
+    /**
+     * Stores the record under the specified name, replacing any record that
+     * was there. The record's position should be at its end. Rewriting an
+     * existing record isn't atomic, a crash part way through can leave it
+     * half old and half new.
+     * @param name
+     * @param record
+     * @throws IOException
+     */
+    public synchronized void put(String name, ByteBuffer record) throws IOException {
+        if (!fitsName(name)) {
+            // It would be cut off and never found again
+            throw new IOException("'" + name + "' is longer than " + (NAME_SIZE - 2) + " bytes");
+        }
+        if (find(name) == -1 && (used + deleted + 1) * 2 > capacity) {
+            grow();
+        }
+
+        int mask = capacity - 1;
+        int free = -1;
+        for (int i = hash(name) & mask, n = 0; n < capacity; i = (i + 1) & mask, n++) {
+            byte state = map.get(offset(i));
+            if (state == USED && name(i).equalsIgnoreCase(name)) {
+                free = i;
+                break;
+            }
+            if (state == DELETED && free == -1) {
+                free = i;
+            }
+            if (state == EMPTY) {
+                if (free == -1) {
+                    free = i;
+                }
+                break;
+            }
+        }
+        if (free == -1) {
+            throw new IOException(file + " is full");
+        }
+
+        byte state = map.get(offset(free));
+        if (state != USED) {
+            used++;
+            if (state == DELETED) {
+                deleted--;
+            }
+        }
+        write(free, name, record);
+        writeCounts();
+    }
+
+    /**
+     * Removes the record stored under the specified name
+     * @param name
+     * @return false if there wasn't one
+     */
+    public synchronized boolean remove(String name) {
+        int slot = find(name);
+        if (slot == -1) {
+            return false;
+        }
+        map.put(offset(slot), DELETED);
+        used--;
+        deleted++;
+        writeCounts();
+        return true;
+    }
+
+    /**
+     * Returns every record in the file, each with its name in front of it
+     * @return
+     */
+    public synchronized List<ByteBuffer> getAll() {
+        List<ByteBuffer> records = new ArrayList<ByteBuffer>(used);
+        for (int i = 0; i < capacity; i++) {
+            if (map.get(offset(i)) == USED) {
+                records.add(record(i));
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Returns how many records there are
+     * @return
+     */
+    public synchronized int size() {
+        return used;
+    }
+
+    /**
+     * Makes sure everything written so far is on disk
+     */
+    public synchronized void force() {
+        map.force();
+    }
+
+    /**
+     * Flushes and closes the file
+     */
+    public synchronized void close() {
+        map.force();
+        try {
+            raf.close();
+        } catch (IOException ex) {
+            log.log(Level.SEVERE, "Exception while closing " + file, ex);
+        }
+    }
+
+    /**
+     * Returns true if a record can be stored under the specified name
+     * @param name
+     * @return
+     */
+    public static boolean fitsName(String name) {
+        return fits(name, NAME_SIZE);
+    }
+
+    /**
+     * Returns true if the string fits in a field written by putString
+     * @param str
+     * @param size bytes the field takes, including the length
+     * @return
+     */
+    public static boolean fits(String str, int size) {
+        return (str == null ? "" : str).getBytes(UTF8).length <= size - 2;
+    }
+
+    /**
+     * Writes a string into a fixed-size field: a two byte length and then
+     * the bytes. Check it fits first, it's never cut off.
+     * @param buffer
+     * @param str
+     * @param size bytes the field takes, including the length
+     * @throws IllegalArgumentException if it doesn't fit
+     */
+    public static void putString(ByteBuffer buffer, String str, int size) {
+        byte[] bytes = (str == null ? "" : str).getBytes(UTF8);
+        if (bytes.length > size - 2) {
+            throw new IllegalArgumentException("'" + str + "' doesn't fit in " + size + " bytes");
+        }
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+        buffer.position(buffer.position() + size - 2 - bytes.length);
+    }
+
+    /**
+     * Reads a string written by putString
+     * @param buffer
+     * @param size
+     * @return
+     */
+    public static String getString(ByteBuffer buffer, int size) {
+        int length = buffer.getShort();
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        buffer.position(buffer.position() + size - 2 - length);
+        return new String(bytes, UTF8);
+    }
+
+    private int find(String name) {
+        int mask = capacity - 1;
+        for (int i = hash(name) & mask, n = 0; n < capacity; i = (i + 1) & mask, n++) {
+            byte state = map.get(offset(i));
+            if (state == EMPTY) {
+                return -1;
+            }
+            if (state == USED && name(i).equalsIgnoreCase(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int hash(String name) {
+        int h = name.toLowerCase().hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private int offset(int slot) {
+        return HEADER + slot * slotSize;
+    }
+
+    private String name(int slot) {
+        ByteBuffer buffer = map.duplicate();
+        buffer.position(offset(slot) + 1);
+        return getString(buffer, NAME_SIZE);
+    }
+
+    private ByteBuffer record(int slot) {
+        ByteBuffer buffer = map.duplicate();
+        buffer.position(offset(slot) + 1);
+        buffer.limit(buffer.position() + NAME_SIZE + recordSize);
+        // Copy it so the caller doesn't hold on to the mapping
+        ByteBuffer copy = ByteBuffer.allocate(NAME_SIZE + recordSize);
+        copy.put(buffer);
+        copy.flip();
+        return copy;
+    }
+
+    private void write(int slot, String name, ByteBuffer record) {
+        ByteBuffer buffer = map.duplicate();
+        buffer.position(offset(slot) + 1);
+        putString(buffer, name, NAME_SIZE);
+        ByteBuffer data = record.duplicate();
+        data.flip();
+        if (data.remaining() > recordSize) {
+            data.limit(recordSize);
+        }
+        buffer.put(data);
+        while (buffer.position() < offset(slot) + slotSize) {
+            buffer.put((byte) 0);
+        }
+        // State last, so a new slot isn't used before it's filled in
+        map.put(offset(slot), USED);
+    }
+
+    private void writeCounts() {
+        map.putInt(16, used);
+        map.putInt(20, deleted);
+    }
+
+    private void open() throws IOException {
+        raf = new RandomAccessFile(file, "rw");
+        FileChannel channel = raf.getChannel();
+        map = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        if (map.getInt(0) != MAGIC || map.getInt(4) != VERSION || map.getInt(8) != recordSize) {
+            raf.close();
+            throw new IOException(file + " isn't a record file with " + recordSize + " byte records");
+        }
+        capacity = map.getInt(12);
+        used = map.getInt(16);
+        deleted = map.getInt(20);
+    }
+
+    private void create(File target, int slots) throws IOException {
+        RandomAccessFile out = new RandomAccessFile(target, "rw");
+        try {
+            out.setLength(HEADER + (long) slots * slotSize);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(recordSize);
+            out.writeInt(slots);
+            out.writeInt(0);
+            out.writeInt(0);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Rehashes everything into a new file twice the size (or the same size,
+     * if it's mostly deleted slots) and swaps it in with a rename, so a crash
+     * halfway leaves the old file alone.
+     */
+    private void grow() throws IOException {
+        int slots = used * 4 > capacity ? capacity * 2 : capacity;
+        File temp = new File(file.getPath() + ".tmp");
+        temp.delete();
+        create(temp, slots);
+
+        List<ByteBuffer> records = getAll();
+
+        map.force();
+        raf.close();
+        MappedByteBuffer old = map;
+        map = null;
+
+        RecordFile grown = new RecordFile(temp, recordSize);
+        for (ByteBuffer record : records) {
+            String name = getString(record, NAME_SIZE);
+            ByteBuffer rest = record.slice();
+            rest.position(rest.limit());
+            grown.put(name, rest);
+        }
+        grown.close();
+
+        if (!temp.renameTo(file)) {
+            file.delete();
+            if (!temp.renameTo(file)) {
+                map = old;
+                raf = new RandomAccessFile(file, "rw");
+                throw new IOException("Unable to move " + temp + " to " + file);
+            }
+        }
+        open();
+    }
+}
@@ -0,0 +1,55 @@
+/* Key for per-player timers */
+
+/**
+ * TimerKey.java - Names a timer belonging to one player, like the cooldown on
+ * a kit. Saves building "player kit" strings to look timers up by, and two
+ * keys are equal whatever case the player's name is in.
+ */
+public final class TimerKey {
+
+    private final String player, name;
+    private final int hash;
+
+    /**
+     * Creates a key
+     * @param player player the timer belongs to
+     * @param name what the timer is for, like a kit name
+     */
+    public TimerKey(String player, String name) {
+        this.player = player.toLowerCase();
+        this.name = name;
+        this.hash = 31 * this.player.hashCode() + name.hashCode();
+    }
+
+    /**
+     * Returns the player the timer belongs to
+     * @return
+     */
+    public String getPlayer() {
+        return player;
+    }
+
+    /**
+     * Returns what the timer is for
+     * @return
+     */
+    public String getName() {
+        return name;
+    }
+
+    public boolean equals(Object obj) {
+        if (!(obj instanceof TimerKey)) {
+            return false;
+        }
+        TimerKey other = (TimerKey) obj;
+        return hash == other.hash && player.equals(other.player) && name.equals(other.name);
+    }
+
+    public int hashCode() {
+        return hash;
+    }
+
+    public String toString() {
+        return player + " " + name;
+    }
+}
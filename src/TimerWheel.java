@@ -0,0 +1,240 @@
+/* Hierarchical timing wheel for cooldowns and plugin timers */
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * TimerWheel.java - Timers counted in server ticks (20 a second), for kit
+ * cooldowns, /lighter and Server.setTimer. Timers sit in four wheels of 64
+ * slots: the first holds whatever runs out in the next 64 ticks, one slot per
+ * tick, the next 64 ticks per slot and so on. Each tick only looks at one
+ * slot, and every 64 ticks the next slot of the wheel above gets spread out
+ * over the one below, so adding, cancelling and running out are all O(1)
+ * however many timers there are.
+ *
+ * Timers are found by key, any object with equals and hashCode (a TimerKey,
+ * or a string like the old MinecraftServer.b timers). Starting a timer with a
+ * key that's already running replaces it.
+ */
+public class TimerWheel {
+
+    /**
+     * Gets told when a timer runs out. Called on the timer thread.
+     */
+    public interface Listener {
+
+        /**
+         * Called when the timer with the specified key runs out
+         * @param key
+         */
+        public void expired(Object key);
+    }
+    private static final Logger log = Logger.getLogger("Minecraft");
+    private static final int BITS = 6, SLOTS = 1 << BITS, MASK = SLOTS - 1, LEVELS = 4;
+    // Anything further off than this waits in the top wheel and is put back
+    // in when its slot comes round
+    private static final long SPAN = 1L << (BITS * LEVELS);
+    private final Entry[][] wheels = new Entry[LEVELS][SLOTS];
+    private final Map<Object, Entry> entries = new HashMap<Object, Entry>();
+    private long tick = 0;
+    private ScheduledExecutorService driver;
+
+    private static final class Entry {
+
+        Object key;
+        long deadline;
+        Listener listener;
+        int level, slot;
+        Entry prev, next;
+    }
+
+    /**
+     * Starts a timer
+     * @param key
+     * @param ticks how long until it runs out
+     */
+    public void schedule(Object key, long ticks) {
+        schedule(key, ticks, null);
+    }
+
+    /**
+     * Starts a timer, replacing any timer with the same key
+     * @param key
+     * @param ticks how long until it runs out
+     * @param listener told when it runs out, may be null
+     */
+    public synchronized void schedule(Object key, long ticks, Listener listener) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            unlink(entry);
+        } else {
+            entry = new Entry();
+            entry.key = key;
+        }
+        entry.deadline = tick + Math.max(1, ticks);
+        entry.listener = listener;
+        entries.put(key, entry);
+        insert(entry);
+    }
+
+    /**
+     * Returns true if the timer with this key is still running
+     * @param key
+     * @return
+     */
+    public synchronized boolean isRunning(Object key) {
+        return entries.containsKey(key);
+    }
+
+    /**
+     * Returns how many ticks the timer has left
+     * @param key
+     * @return ticks, or 0 if it isn't running
+     */
+    public synchronized long getRemaining(Object key) {
+        Entry entry = entries.get(key);
+        return entry == null ? 0 : entry.deadline - tick;
+    }
+
+    /**
+     * Stops a timer without telling its listener
+     * @param key
+     * @return false if it wasn't running
+     */
+    public synchronized boolean cancel(Object key) {
+        Entry entry = entries.remove(key);
+        if (entry == null) {
+            return false;
+        }
+        unlink(entry);
+        return true;
+    }
+
+    /**
+     * Returns how many timers are running
+     * @return
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Moves time on by one tick and runs out whatever is due
+     */
+    public void tick() {
+        List<Entry> expired = new ArrayList<Entry>();
+        synchronized (this) {
+            tick++;
+            for (int level = 1; level < LEVELS; level++) {
+                if ((tick & ((1L << (BITS * level)) - 1)) != 0) {
+                    break;
+                }
+                cascade(level, (int) ((tick >>> (BITS * level)) & MASK));
+            }
+
+            int slot = (int) (tick & MASK);
+            Entry entry = wheels[0][slot];
+            wheels[0][slot] = null;
+            while (entry != null) {
+                Entry next = entry.next;
+                entry.prev = entry.next = null;
+                entries.remove(entry.key);
+                if (entry.listener != null) {
+                    expired.add(entry);
+                }
+                entry = next;
+            }
+        }
+
+        for (Entry entry : expired) {
+            try {
+                entry.listener.expired(entry.key);
+            } catch (Throwable t) {
+                log.log(Level.SEVERE, "Exception in timer listener for " + entry.key, t);
+            }
+        }
+    }
+
+    /**
+     * Starts ticking 20 times a second on a background thread
+     */
+    public synchronized void start() {
+        if (driver != null) {
+            return;
+        }
+        driver = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "Timer wheel");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        driver.scheduleAtFixedRate(new Runnable() {
+
+            public void run() {
+                tick();
+            }
+        }, 50, 50, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops ticking. Timers keep their remaining time.
+     */
+    public synchronized void stop() {
+        if (driver != null) {
+            driver.shutdownNow();
+            driver = null;
+        }
+    }
+
+    private void insert(Entry entry) {
+        long when = entry.deadline;
+        if (when - tick >= SPAN) {
+            when = tick + SPAN - 1;
+        }
+        long diff = when - tick;
+        int level = 0;
+        while (level < LEVELS - 1 && diff >= (1L << (BITS * (level + 1)))) {
+            level++;
+        }
+        entry.level = level;
+        entry.slot = (int) ((when >>> (BITS * level)) & MASK);
+        entry.prev = null;
+        entry.next = wheels[level][entry.slot];
+        if (entry.next != null) {
+            entry.next.prev = entry;
+        }
+        wheels[level][entry.slot] = entry;
+    }
+
+    private void unlink(Entry entry) {
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+        } else {
+            wheels[entry.level][entry.slot] = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.prev = entry.prev;
+        }
+        entry.prev = entry.next = null;
+    }
+
+    private void cascade(int level, int slot) {
+        Entry entry = wheels[level][slot];
+        wheels[level][slot] = null;
+        while (entry != null) {
+            Entry next = entry.next;
+            insert(entry);
+            entry = next;
+        }
+    }
+}
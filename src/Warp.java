@@ -1,23 +1,23 @@
-
-/**
- *
- * @author James
- */
-public class Warp {
-
-    /**
-     * Warp ID - Used in database transactions
-     */
-    public int ID;
-    /**
-     * Warp name
-     */
-    /**
-     * Warp group
-     */
-    public String Name, Group;
-    /**
-     * Warp's location
-     */
-    public Location Location;
-}
+
+/**
+ *
+ * @author James
+ */
+public class Warp {
+
+    /**
+     * Warp ID - Used in database transactions
+     */
+    public int ID;
+    /**
+     * Warp name
+     */
+    /**
+     * Warp group
+     */
+    public String Name, Group;
+    /**
+     * Warp's location
+     */
+    public Location Location;
+}
@@ -0,0 +1,198 @@
+/* Grid index over warp and home locations */
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * WarpGrid.java - Buckets warps (or homes) by the CELL x CELL column of the
+ * map they're in, so finding everything near a spot only looks at the few
+ * cells around it. Like DataSnapshot it never changes once made: with and
+ * without return a new grid that shares every cell except the one that
+ * changed.
+ */
+public class WarpGrid {
+
+    /**
+     * An empty grid
+     */
+    public static final WarpGrid EMPTY = new WarpGrid(new HashMap<Long, Warp[]>());
+    private static final int CELL = 64;
+    private final Map<Long, Warp[]> cells;
+
+    private WarpGrid(Map<Long, Warp[]> cells) {
+        this.cells = cells;
+    }
+
+    /**
+     * Makes a grid holding the specified warps
+     * @param warps
+     * @return
+     */
+    public static WarpGrid build(Collection<Warp> warps) {
+        Map<Long, List<Warp>> lists = new HashMap<Long, List<Warp>>();
+        for (Warp warp : warps) {
+            if (warp.Location == null) {
+                continue;
+            }
+            Long key = key(warp.Location);
+            List<Warp> list = lists.get(key);
+            if (list == null) {
+                list = new ArrayList<Warp>();
+                lists.put(key, list);
+            }
+            list.add(warp);
+        }
+        Map<Long, Warp[]> cells = new HashMap<Long, Warp[]>(lists.size() * 2);
+        for (Map.Entry<Long, List<Warp>> entry : lists.entrySet()) {
+            cells.put(entry.getKey(), entry.getValue().toArray(new Warp[entry.getValue().size()]));
+        }
+        return new WarpGrid(cells);
+    }
+
+    /**
+     * Returns a copy with old (if any) swapped for warp
+     * @param old warp being replaced, or null
+     * @param warp
+     * @return
+     */
+    public WarpGrid with(Warp old, Warp warp) {
+        Map<Long, Warp[]> copy = new HashMap<Long, Warp[]>(cells);
+        if (old != null) {
+            remove(copy, old);
+        }
+        if (warp.Location != null) {
+            Long key = key(warp.Location);
+            Warp[] cell = copy.get(key);
+            if (cell == null) {
+                copy.put(key, new Warp[]{warp});
+            } else {
+                Warp[] grown = new Warp[cell.length + 1];
+                System.arraycopy(cell, 0, grown, 0, cell.length);
+                grown[cell.length] = warp;
+                copy.put(key, grown);
+            }
+        }
+        return new WarpGrid(copy);
+    }
+
+    /**
+     * Returns a copy without the specified warp
+     * @param warp
+     * @return
+     */
+    public WarpGrid without(Warp warp) {
+        Map<Long, Warp[]> copy = new HashMap<Long, Warp[]>(cells);
+        remove(copy, warp);
+        return new WarpGrid(copy);
+    }
+
+    /**
+     * Returns every warp within radius blocks of the location, nearest first
+     * @param location
+     * @param radius
+     * @return
+     */
+    public List<Warp> within(final Location location, double radius) {
+        List<Warp> found = new ArrayList<Warp>();
+        if (!(radius >= 0)) {
+            return found;
+        }
+        double max = radius * radius;
+        int minX = cell(location.x - radius), maxX = cell(location.x + radius);
+        int minZ = cell(location.z - radius), maxZ = cell(location.z + radius);
+        // Widths can be anything up to 2^32 when the cells saturate, so
+        // compare in double where the product can't wrap
+        long width = (long) maxX - minX + 1, depth = (long) maxZ - minZ + 1;
+        if ((double) width * depth > cells.size()) {
+            // Huge radius, cheaper to go through the cells we've got
+            for (Warp[] cell : cells.values()) {
+                collect(cell, location, max, found);
+            }
+        } else {
+            for (long x = minX; x <= maxX; x++) {
+                for (long z = minZ; z <= maxZ; z++) {
+                    collect(cells.get(key((int) x, (int) z)), location, max, found);
+                }
+            }
+        }
+        Collections.sort(found, new Comparator<Warp>() {
+
+            public int compare(Warp a, Warp b) {
+                return Double.compare(distance(a.Location, location), distance(b.Location, location));
+            }
+        });
+        return found;
+    }
+
+    /**
+     * Returns the squared distance between two locations
+     * @param a
+     * @param b
+     * @return
+     */
+    public static double distance(Location a, Location b) {
+        double dx = a.x - b.x, dy = a.y - b.y, dz = a.z - b.z;
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    private static void collect(Warp[] cell, Location location, double max, List<Warp> found) {
+        if (cell == null) {
+            return;
+        }
+        for (Warp warp : cell) {
+            if (distance(warp.Location, location) <= max) {
+                found.add(warp);
+            }
+        }
+    }
+
+    private static void remove(Map<Long, Warp[]> cells, Warp warp) {
+        if (warp.Location != null && remove(cells, key(warp.Location), warp)) {
+            return;
+        }
+        // Moved without telling us, it's in its old cell somewhere
+        for (Long key : new ArrayList<Long>(cells.keySet())) {
+            if (remove(cells, key, warp)) {
+                return;
+            }
+        }
+    }
+
+    private static boolean remove(Map<Long, Warp[]> cells, Long key, Warp warp) {
+        Warp[] cell = cells.get(key);
+        if (cell == null) {
+            return false;
+        }
+        for (int i = 0; i < cell.length; i++) {
+            if (cell[i] == warp) {
+                if (cell.length == 1) {
+                    cells.remove(key);
+                } else {
+                    Warp[] shrunk = new Warp[cell.length - 1];
+                    System.arraycopy(cell, 0, shrunk, 0, i);
+                    System.arraycopy(cell, i + 1, shrunk, i, cell.length - i - 1);
+                    cells.put(key, shrunk);
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int cell(double coordinate) {
+        return (int) Math.floor(coordinate / CELL);
+    }
+
+    private static Long key(Location location) {
+        return key(cell(location.x), cell(location.z));
+    }
+
+    private static Long key(int x, int z) {
+        return ((long) x << 32) | (z & 0xffffffffL);
+    }
+}
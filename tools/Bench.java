@@ -0,0 +1,427 @@
+/* Times the mod's hot paths */
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Bench.java - A plain timing harness for the parts of the mod that can run
+ * without a world or a connection: DataSource lookups and the FlatFileSource
+ * loaders at a few sizes, etc.canUseCommand through deep group inheritance,
+ * PluginLoader.callHook with N plugins, the id.a(ba) chat path, hp packet
+ * encode and decode, the ban checks of a login storm against 100k bans, and
+ * FlatFileJournal appends. Each case is warmed up and then run for a second,
+ * and the average time per call is printed, so runs before and after a change
+ * can be compared.
+ *
+ * It writes server.properties, users.txt, groups.txt and so on into the
+ * current directory, so run it in an empty one, with the compiled mod and
+ * minecraft_server.jar on the classpath:
+ * java -cp minecraft_server.jar:tools Bench
+ *
+ * Apart from the journal and the ban checks it only calls what older builds
+ * already had, so the same class can be run against a build from before a
+ * change.
+ */
+public class Bench {
+
+    private static final long WARMUP = 500, MEASURE = 1000;
+    private static final int[] SIZES = {100, 1000, 10000};
+    private static final int GROUP_DEPTH = 20;
+    private static final int[] PLUGINS = {0, 1, 10, 100};
+    private static final int BANS = 100000;
+    private static int sink;
+
+    /**
+     * One call of whatever is being timed
+     */
+    private interface Case {
+
+        /**
+         * Does one call
+         * @return anything, so the call can't be optimized away
+         */
+        public int run();
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (new File("server.properties").exists()) {
+            System.out.println("Run this in an empty directory, it writes server.properties, users.txt and so on");
+            System.exit(1);
+        }
+        // Every load logs a line, which would swamp the numbers
+        Logger.getLogger("Minecraft").setLevel(Level.WARNING);
+        write("server.properties", "data-source=flatfile", "plugins=", "lazy-homes=false", "flatfile-journal=false");
+
+        etc e = etc.getInstance();
+        for (int size : SIZES) {
+            writeData(size);
+            final DataSource source;
+            if (e.getDataSource() == null) {
+                e.loadData();
+                source = e.getDataSource();
+            } else {
+                source = e.getDataSource();
+                source.initialize();
+            }
+            dataSource(source, size);
+        }
+
+        for (int count : PLUGINS) {
+            callHook(count);
+        }
+
+        chat();
+        packets();
+        try {
+            loginStorm();
+        } catch (NoSuchMethodError ex) {
+            System.out.println("No isBanned/isIpBanned in this build, skipping the login storm");
+        }
+        try {
+            journal();
+        } catch (NoClassDefFoundError ex) {
+            System.out.println("No FlatFileJournal in this build, skipping it");
+        }
+        System.out.println("sink " + sink);
+        System.exit(0);
+    }
+
+    private static void dataSource(final DataSource source, final int size) {
+        final String[] names = new String[size];
+        for (int i = 0; i < size; i++) {
+            names[(i * 7919) % size] = "Player" + i;
+        }
+        final int[] next = {0};
+
+        time("initialize", size, new Case() {
+
+            public int run() {
+                source.initialize();
+                return 0;
+            }
+        });
+        time("loadUsers", size, new Case() {
+
+            public int run() {
+                source.loadUsers();
+                return 0;
+            }
+        });
+        time("loadGroups", size, new Case() {
+
+            public int run() {
+                source.loadGroups();
+                return 0;
+            }
+        });
+        time("loadHomes", size, new Case() {
+
+            public int run() {
+                source.loadHomes();
+                return 0;
+            }
+        });
+        time("loadWarps", size, new Case() {
+
+            public int run() {
+                source.loadWarps();
+                return 0;
+            }
+        });
+        time("getUser", size, new Case() {
+
+            public int run() {
+                User user = source.getUser(names[next[0]++ % size]);
+                return user == null ? 0 : user.ID;
+            }
+        });
+        time("getUser (missing)", size, new Case() {
+
+            public int run() {
+                return source.getUser("Nobody" + (next[0]++ & 15)) == null ? 0 : 1;
+            }
+        });
+        time("getGroup", size, new Case() {
+
+            public int run() {
+                Group group = source.getGroup("group" + (next[0]++ % GROUP_DEPTH));
+                return group == null ? 0 : group.ID;
+            }
+        });
+        time("canUseCommand (depth " + GROUP_DEPTH + ")", size, new Case() {
+
+            public int run() {
+                return etc.getInstance().canUseCommand(names[next[0]++ % size], "/deep") ? 1 : 0;
+            }
+        });
+        time("canUseCommand (denied)", size, new Case() {
+
+            public int run() {
+                return etc.getInstance().canUseCommand(names[next[0]++ % size], "/nothere") ? 1 : 0;
+            }
+        });
+    }
+
+    private static void callHook(int count) throws Exception {
+        final PluginLoader loader = new PluginLoader(null);
+        for (int i = 0; i < count; i++) {
+            Plugin listening = new Plugin() {
+
+                public void enable() {
+                }
+
+                public void disable() {
+                }
+
+                public String onLoginChecks(String user) {
+                    return user.length() > 100 ? "Name too long" : null;
+                }
+            };
+            listening.setName("Listening" + i);
+            add(loader, listening);
+
+            // Doesn't override anything, so it's never called
+            Plugin idle = new Plugin() {
+
+                public void enable() {
+                }
+
+                public void disable() {
+                }
+            };
+            idle.setName("Idle" + i);
+            add(loader, idle);
+        }
+
+        final Object[] parameters = {"Player1"};
+        time("callHook LOGINCHECK", count, new Case() {
+
+            public int run() {
+                return loader.callHook(PluginLoader.Hook.LOGINCHECK, parameters) == Boolean.FALSE ? 0 : 1;
+            }
+        });
+    }
+
+    private static void chat() throws Exception {
+        // Nobody is online, so the message is checked and formatted but the
+        // broadcast has no one to send to. None of these need a connection.
+        MinecraftServer server = (MinecraftServer) allocate(MinecraftServer.class);
+        server.f = (ft) allocate(ft.class);
+        server.f.b = new ArrayList<Object>();
+        ea player = (ea) allocate(ea.class);
+        player.aq = "Player1";
+        final id handler = (id) allocate(id.class);
+        set(handler, "d", server);
+        set(handler, "e", player);
+
+        final ba message = new ba("Has anyone seen the minecart track that used to go north of spawn?");
+        time("id.a(ba) chat", message.a.length(), new Case() {
+
+            public int run() {
+                handler.a(message);
+                return 0;
+            }
+        });
+    }
+
+    private static void loginStorm() throws Exception {
+        // 100k name bans, and 100k IP bans of which a tenth are /24 blocks
+        String[] names = new String[BANS], ips = new String[BANS];
+        for (int i = 0; i < BANS; i++) {
+            names[i] = "Banned" + i;
+            ips[i] = i % 10 == 0 ? "172." + (16 + i / 2560) + "." + (i / 10 & 255) + ".0/24" : "10." + (i >> 16 & 255) + "." + (i >> 8 & 255) + "." + (i & 255);
+        }
+        write("banned-players.txt", names);
+        write("banned-ips.txt", ips);
+
+        // Load them the way the constructor does, without the world it needs
+        final ft list = (ft) allocate(ft.class);
+        // Older builds keep both in lists
+        for (String field : new String[] {"f", "g"}) {
+            Field f = ft.class.getDeclaredField(field);
+            f.setAccessible(true);
+            if (f.getType().isAssignableFrom(ArrayList.class)) {
+                f.set(list, new ArrayList<String>());
+            } else if (f.getType().isAssignableFrom(LinkedHashSet.class)) {
+                f.set(list, new LinkedHashSet<String>());
+            } else {
+                f.set(list, new IpBanTrie());
+            }
+        }
+        set(list, "i", new File("banned-players.txt"));
+        set(list, "j", new File("banned-ips.txt"));
+        long start = System.nanoTime();
+        for (String loader : new String[] {"e", "g"}) {
+            Method method = ft.class.getDeclaredMethod(loader);
+            method.setAccessible(true);
+            method.invoke(list);
+        }
+        System.out.println(String.format("%-32s %8d %14s", "load bans", BANS * 2, (System.nanoTime() - start) / 1000 + " us"));
+
+        // The checks ft.a(ew, ...) makes before anything else, for logins that
+        // get in and for ones that don't
+        final BanSystem bans = etc.getInstance().getBanSystem();
+        final int[] next = {0};
+        time("login ban checks (allowed)", BANS, new Case() {
+
+            public int run() {
+                int i = next[0]++;
+                String name = "Player" + (i & 1023);
+                String ip = "192.168." + (i >> 8 & 255) + "." + (i & 255);
+                return list.isBanned(name) || list.isIpBanned(ip) || bans.getBan(name, ip) != null ? 1 : 0;
+            }
+        });
+        time("login ban checks (banned)", BANS, new Case() {
+
+            public int run() {
+                int i = next[0]++;
+                String name = "Player" + (i & 1023);
+                String ip = "172.16." + (i >> 8 & 255) + "." + (i & 255);
+                return list.isBanned(name) || list.isIpBanned(ip) || bans.getBan(name, ip) != null ? 1 : 0;
+            }
+        });
+    }
+
+    private static void packets() throws IOException {
+        final hp chat = new ba("Has anyone seen the minecart track that used to go north of spawn?");
+        final hp move = hp.a(13);
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        for (final hp packet : new hp[] {chat, move}) {
+            final String name = packet.getClass().getName();
+            bytes.reset();
+            hp.a(packet, out);
+            final byte[] encoded = bytes.toByteArray();
+            time("hp encode " + name, encoded.length, new Case() {
+
+                public int run() {
+                    bytes.reset();
+                    hp.a(packet, out);
+                    return bytes.size();
+                }
+            });
+            time("hp decode " + name, encoded.length, new Case() {
+
+                public int run() {
+                    try {
+                        return hp.b(new DataInputStream(new ByteArrayInputStream(encoded))).b();
+                    } catch (IOException ex) {
+                        throw new RuntimeException(ex);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Makes an object without running its constructor, for the server
+     * classes that would otherwise need a world or a socket
+     * @param type
+     * @return
+     */
+    private static Object allocate(Class<?> type) throws Exception {
+        Field field = Class.forName("sun.misc.Unsafe").getDeclaredField("theUnsafe");
+        field.setAccessible(true);
+        Object unsafe = field.get(null);
+        return unsafe.getClass().getMethod("allocateInstance", Class.class).invoke(unsafe, type);
+    }
+
+    private static void set(Object target, String name, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    /**
+     * Plugins come from jars, so add them the way loadPlugin does. Older
+     * builds keep them in a plain list instead.
+     */
+    @SuppressWarnings("unchecked")
+    private static void add(PluginLoader loader, Plugin plugin) throws Exception {
+        try {
+            Method add = PluginLoader.class.getDeclaredMethod("add", Plugin.class);
+            add.setAccessible(true);
+            add.invoke(loader, plugin);
+        } catch (NoSuchMethodException ex) {
+            Field plugins = PluginLoader.class.getDeclaredField("plugins");
+            plugins.setAccessible(true);
+            ((List<Plugin>) plugins.get(loader)).add(plugin);
+        }
+    }
+
+    private static void journal() throws IOException {
+        final FlatFileJournal journal = new FlatFileJournal("benchjournal.txt");
+        final int[] next = {0};
+        time("FlatFileJournal.put", 0, new Case() {
+
+            public int run() {
+                int i = next[0]++;
+                journal.put("Player" + (i % 1000) + ":" + i + ":64.0:" + i + ":0.0:0.0:");
+                return i;
+            }
+        });
+        long start = System.nanoTime();
+        journal.compact();
+        System.out.println(String.format("%-32s %8s %14s", "FlatFileJournal.compact", next[0], (System.nanoTime() - start) / 1000 + " us"));
+    }
+
+    private static void time(String name, int size, Case c) {
+        long end = System.currentTimeMillis() + WARMUP;
+        while (System.currentTimeMillis() < end) {
+            sink += c.run();
+        }
+        long calls = 0;
+        long start = System.nanoTime();
+        long stop = start + MEASURE * 1000000L;
+        long now;
+        do {
+            sink += c.run();
+            calls++;
+        } while ((now = System.nanoTime()) < stop);
+        System.out.println(String.format("%-32s %8d %14.1f ns/op", name, size, (double) (now - start) / calls));
+    }
+
+    private static void writeData(int size) throws IOException {
+        // group0 inherits group1 and so on, only the last one has /deep
+        String[] groups = new String[GROUP_DEPTH];
+        for (int i = 0; i < GROUP_DEPTH; i++) {
+            String inherits = i + 1 < GROUP_DEPTH ? "group" + (i + 1) : "group" + i;
+            groups[i] = "group" + i + ":f:" + (i + 1 < GROUP_DEPTH ? "/cmd" + i : "/deep") + ":" + inherits;
+        }
+        write("groups.txt", groups);
+
+        String[] users = new String[size];
+        String[] warps = new String[size];
+        for (int i = 0; i < size; i++) {
+            users[i] = "Player" + i + ":group0:0:f:/own" + i;
+            warps[i] = "Player" + i + ":" + i + ".5:64.0:" + (-i) + ".5:0.0:0.0:";
+        }
+        write("users.txt", users);
+        write("homes.txt", warps);
+        write("warps.txt", warps);
+        write("kits.txt", "#No kits, checking their items needs the server's item list");
+    }
+
+    private static void write(String location, String... lines) throws IOException {
+        FileWriter writer = new FileWriter(location);
+        try {
+            for (String line : lines) {
+                writer.write(line + "\r\n");
+            }
+        } finally {
+            writer.close();
+        }
+    }
+}
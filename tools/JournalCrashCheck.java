@@ -0,0 +1,151 @@
+/* Checks that a flat file journal survives a crash at every step of compact() */
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * JournalCrashCheck.java - Leaves the files of a FlatFileJournal the way a
+ * crash at each step of compact() or part way through an append would, runs
+ * compact() again and checks nothing was lost or applied twice. Exits with 1
+ * if any case fails.
+ *
+ * Run with the compiled mod on the classpath:
+ * java -cp .:tools JournalCrashCheck
+ */
+public class JournalCrashCheck {
+
+    private static final List<String> BASE = Arrays.asList("#Homes", "alice:1:2:3:0:0:", "bob:4:5:6:0:0:");
+    private static final List<String> OLD = Arrays.asList("+carol:7:8:9:0:0:", "+alice:10:11:12:0:0:", "-bob");
+    private static final List<String> NEW = Arrays.asList("+dave:1:1:1:0:0:", "+carol:0:0:0:0:0:");
+    private static final List<String> AFTER_OLD = Arrays.asList("#Homes", "alice:10:11:12:0:0:", "carol:7:8:9:0:0:");
+    private static final List<String> AFTER_ALL = Arrays.asList("#Homes", "alice:10:11:12:0:0:", "carol:0:0:0:0:0:", "dave:1:1:1:0:0:");
+    private static int failures = 0;
+
+    public static void main(String[] args) throws IOException {
+        File dir = new File(System.getProperty("java.io.tmpdir"), "journalcheck" + System.nanoTime());
+        if (!dir.mkdirs()) {
+            throw new IOException("Unable to create " + dir);
+        }
+        String loc = new File(dir, "homes.txt").getPath();
+        File file = new File(loc), journal = new File(loc + ".journal"), pending = new File(loc + ".journal.old"), temp = new File(loc + ".tmp");
+
+        // Nothing went wrong
+        reset(file, journal, pending, temp);
+        journal(journal, concat(OLD, NEW));
+        check("clean", loc, AFTER_ALL);
+
+        // Died right after rotating the journal, more changes came in after
+        reset(file, journal, pending, temp);
+        journal(pending, OLD);
+        journal(journal, NEW);
+        check("after rotate", loc, AFTER_ALL);
+
+        // Died half way through writing the new file
+        reset(file, journal, pending, temp);
+        journal(pending, OLD);
+        write(temp, Arrays.asList("#Homes", "alice:10:1"));
+        check("partial tmp", loc, AFTER_OLD);
+
+        // Died after deleting the old file but before moving the new one in
+        reset(file, journal, pending, temp);
+        file.delete();
+        journal(pending, OLD);
+        write(temp, AFTER_OLD);
+        journal(journal, NEW);
+        check("between delete and rename", loc, AFTER_ALL);
+
+        // Died after moving the new file in but before deleting the old journal
+        reset(file, journal, pending, temp);
+        write(file, AFTER_OLD);
+        journal(pending, OLD);
+        check("before deleting .old", loc, AFTER_OLD);
+
+        // Died part way through an append, then came back up and carried on
+        reset(file, journal, pending, temp);
+        journal(journal, OLD);
+        FileWriter torn = new FileWriter(journal, true);
+        torn.write("+alice:99:9");
+        torn.close();
+        new FlatFileJournal(loc).put("erin:5:5:5:0:0:");
+        check("torn append", loc, concat(AFTER_OLD, Arrays.asList("erin:5:5:5:0:0:")));
+
+        for (File f : dir.listFiles()) {
+            f.delete();
+        }
+        dir.delete();
+        if (failures > 0) {
+            System.out.println(failures + " case(s) failed");
+            System.exit(1);
+        }
+        System.out.println("All cases passed");
+    }
+
+    private static void check(String name, String loc, List<String> expected) throws IOException {
+        FlatFileJournal j = new FlatFileJournal(loc);
+        j.compact();
+        List<String> actual = read(new File(loc));
+        boolean ok = actual.equals(expected) && !j.hasChanges() && !new File(loc + ".journal.old").exists();
+        if (!ok) {
+            failures++;
+        }
+        System.out.println((ok ? "ok   " : "FAIL ") + name + (ok ? "" : ": expected " + expected + " got " + actual));
+    }
+
+    private static void reset(File file, File journal, File pending, File temp) throws IOException {
+        journal.delete();
+        pending.delete();
+        temp.delete();
+        write(file, BASE);
+    }
+
+    private static List<String> concat(List<String> a, List<String> b) {
+        List<String> all = new ArrayList<String>(a);
+        all.addAll(b);
+        return all;
+    }
+
+    private static void write(File f, List<String> lines) throws IOException {
+        FileWriter writer = new FileWriter(f);
+        try {
+            for (String line : lines) {
+                writer.write(line + "\r\n");
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static void journal(File f, List<String> records) throws IOException {
+        FileWriter writer = new FileWriter(f);
+        try {
+            for (String record : records) {
+                writer.write(FlatFileJournal.frame(record));
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static List<String> read(File f) throws IOException {
+        List<String> lines = new ArrayList<String>();
+        if (!f.exists()) {
+            return lines;
+        }
+        BufferedReader reader = new BufferedReader(new FileReader(f));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        } finally {
+            reader.close();
+        }
+        return lines;
+    }
+}